@@ -0,0 +1,57 @@
+package com.bookbrew.customer.service.benchmark;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookbrew.customer.service.model.Address;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddressDuplicateCheckBenchmark {
+
+    @Param({ "1", "5", "20" })
+    private int addressCount;
+
+    private List<Address> addresses;
+
+    @Setup
+    public void setUp() {
+        addresses = BenchmarkFixtures.addresses(addressCount);
+    }
+
+    @Benchmark
+    public boolean hashSetDuplicateCheck() {
+        Set<Address> uniqueAddresses = new HashSet<>(addresses);
+        return uniqueAddresses.size() < addresses.size();
+    }
+
+    @Benchmark
+    public boolean fingerprintDuplicateCheck() {
+        Set<String> fingerprints = new HashSet<>(addresses.size() * 2);
+        for (Address address : addresses) {
+            if (!fingerprints.add(address.computeFingerprint())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.bookbrew.customer.service.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.support.TestAddresses;
+
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static Customer customer(long id, int addresses) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setUserId(id + 1000);
+        customer.setBirthDate("1990-05-01");
+        customer.setAddresses(addresses(addresses));
+        return customer;
+    }
+
+    static UserResponseDTO user(long id) {
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(id);
+        user.setName("Ana");
+        user.setLastName("Silva");
+        user.setEmail("ana" + id + "@bookbrew.com");
+        user.setCpf("12345678901");
+        user.setPhone("5511999999999");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3xK8e0W1kSg7p3yG5bH9q1a");
+        user.setStatus(true);
+        user.setIdProfile(4L);
+        user.setCreationDate(LocalDateTime.of(2024, 1, 1, 10, 0));
+        user.setUpdateDate(LocalDateTime.of(2024, 2, 1, 10, 0));
+        user.setLastLoginDate(LocalDateTime.of(2024, 3, 1, 10, 0));
+        user.setPasswordUpdateDate(LocalDateTime.of(2024, 4, 1, 10, 0));
+        return user;
+    }
+
+    static CustomerDTO customerDTO(int addresses) {
+        CustomerDTO customerDTO = new CustomerDTO();
+        customerDTO.setName("Ana");
+        customerDTO.setLastName("Silva");
+        customerDTO.setEmail("ana@bookbrew.com");
+        customerDTO.setCpf("12345678901");
+        customerDTO.setPhone("5511999999999");
+        customerDTO.setPassword("secret");
+        customerDTO.setStatus(true);
+        customerDTO.setBirthDate("1990-05-01");
+        customerDTO.setProfile(4L);
+        customerDTO.setAddresses(addresses(addresses));
+        return customerDTO;
+    }
+
+    static List<Address> addresses(int count) {
+        List<Address> addresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            addresses.add(address((long) i + 1, "Rua " + i));
+        }
+        return addresses;
+    }
+
+    static Address address(Long id, String street) {
+        Address address = TestAddresses.address(street);
+        address.setId(id);
+        return address;
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.bookbrew.customer.service.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.bookbrew.customer.service.BookBrewCustomerServiceApplication;
+import com.bookbrew.customer.service.dto.UserProfileDTO;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// GET and PUT /api/customers/{id} on each stack with more concurrent clients than Tomcat has threads, every call
+// going to an auth-service that takes authDelay to answer; Throughput plus SampleTime for p99. Each client updates
+// a customer of its own, so optimistic locking conflicts do not show up as failures
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class CustomerApiLoadBenchmark {
+
+    private static final int CUSTOMERS = 400;
+
+    @Param({ "servlet", "reactive" })
+    private String stack;
+
+    @Param({ "250" })
+    private int authDelay;
+
+    private HttpServer authService;
+
+    private ExecutorService authServiceExecutor;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private List<URI> customerUris;
+
+    private final AtomicInteger nextCustomer = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        startAuthService();
+
+        String port = String.valueOf(authService.getAddress().getPort());
+        context = new SpringApplicationBuilder(BookBrewCustomerServiceApplication.class)
+                .profiles(stack.equals("reactive") ? new String[] { "reactive" } : new String[0])
+                // arguments, so they win over application.yml
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + stack + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--auth.service.url=http://127.0.0.1:" + port,
+                        // every read goes to auth-service: snapshots are always stale and the user cache is off
+                        "--customer.user-projection.max-staleness=PT0S",
+                        "--auth.service.user-cache.max-size=0",
+                        // keep the auth-service limits of both stacks out of the way so the server model is measured
+                        "--auth.service.bulkhead.max-concurrent-calls=1000",
+                        "--spring.cloud.openfeign.httpclient.max-connections=1000",
+                        "--spring.cloud.openfeign.httpclient.max-connections-per-route=1000",
+                        "--auth.service.reactive.max-connections=1000",
+                        "--logging.level.root=WARN");
+
+        CustomerRepository customerRepository = context.getBean(CustomerRepository.class);
+        List<Customer> customers = new ArrayList<>();
+        for (long i = 0; i < CUSTOMERS; i++) {
+            Customer customer = BenchmarkFixtures.customer(i, 2);
+            customer.setId(null);
+            customer.getAddresses().forEach(address -> address.setId(null));
+            customers.add(customer);
+        }
+
+        int appPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+        customerUris = customerRepository.saveAll(customers).stream()
+                .map(customer -> URI.create("http://127.0.0.1:" + appPort + "/api/customers/" + customer.getId()))
+                .toList();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    private void startAuthService() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        UserProfileDTO profile = new UserProfileDTO();
+        profile.setId(4L);
+        profile.setName("CUSTOMER");
+        profile.setStatus(true);
+        byte[] profileJson = objectMapper.writeValueAsBytes(profile);
+
+        // virtual threads, so the stub itself never caps concurrency
+        authServiceExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        authService = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 2048);
+        authService.createContext("/api/user-profiles", exchange -> respond(exchange, profileJson));
+        authService.createContext("/api/users", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+            // updates answer with the stored user, their body is only drained
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(authDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, objectMapper.writeValueAsBytes(BenchmarkFixtures.user(id)));
+        });
+        authService.setExecutor(authServiceExecutor);
+        authService.start();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        authService.stop(0);
+        authServiceExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int getCustomer(Responses responses) throws IOException, InterruptedException {
+        URI uri = customerUris.get(ThreadLocalRandom.current().nextInt(customerUris.size()));
+        return send(HttpRequest.newBuilder(uri).build(), responses);
+    }
+
+    // a name change, so every update is sent to auth-service
+    @Benchmark
+    public int updateCustomer(OwnCustomer customer, Responses responses) throws IOException, InterruptedException {
+        String body = "{\"name\":\"Bia " + ThreadLocalRandom.current().nextInt(1_000_000) + "\"}";
+        return send(HttpRequest.newBuilder(customer.uri)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build(), responses);
+    }
+
+    private int send(HttpRequest request, Responses responses) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        // a shed or failed request is reported next to the score instead of counting as a fast one
+        if (response.statusCode() == 200) {
+            responses.ok++;
+        } else {
+            responses.failed++;
+        }
+        return response.body().length;
+    }
+
+    @State(Scope.Thread)
+    public static class OwnCustomer {
+
+        URI uri;
+
+        @Setup(Level.Trial)
+        public void pick(CustomerApiLoadBenchmark benchmark) {
+            uri = benchmark.customerUris.get(benchmark.nextCustomer.getAndIncrement() % CUSTOMERS);
+        }
+
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+
+        public long ok;
+
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ok = 0;
+            failed = 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.bookbrew.customer.service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.dto.CustomerSearchDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.mapper.CustomerMapper;
+import com.bookbrew.customer.service.model.Customer;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMappingBenchmark {
+
+    private ModelMapper modelMapper;
+
+    private CustomerMapper customerMapper;
+
+    private Customer customer;
+
+    private UserResponseDTO user;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+                .setPropertyCondition(context -> context.getSource() != null)
+                .setSkipNullEnabled(true)
+                .setAmbiguityIgnored(true);
+        customerMapper = new CustomerMapper();
+        customer = BenchmarkFixtures.customer(1L, 3);
+        user = BenchmarkFixtures.user(1001L);
+    }
+
+    @Benchmark
+    public CustomerSearchDTO modelMapperSearchDTO() {
+        return modelMapper.map(customer, CustomerSearchDTO.class);
+    }
+
+    @Benchmark
+    public CustomerSearchDTO customerMapperSearchDTO() {
+        return customerMapper.toCustomerSearchDTO(customer, user);
+    }
+
+    @Benchmark
+    public CustomerDTO modelMapperCustomerDTO() {
+        return modelMapper.map(customer, CustomerDTO.class);
+    }
+
+    @Benchmark
+    public CustomerDTO customerMapperCustomerDTO() {
+        return customerMapper.toCustomerDTO(customer, user, 4L);
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.bookbrew.customer.service.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+
+// Throughput plus SampleTime, whose output includes p99, for a user lookup against a local server
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class UserClientTransportBenchmark {
+
+    @Param({ "default", "hc5", "jdk" })
+    private String transport;
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private CloseableHttpClient apacheClient;
+
+    private Client client;
+
+    private Request request;
+
+    private final Request.Options options = new Request.Options(1, TimeUnit.SECONDS, 3, TimeUnit.SECONDS, true);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // without it the JDK server's header and body writes stall on delayed ACKs and every transport looks like 40ms
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        byte[] user = new ObjectMapper().findAndRegisterModules().writeValueAsBytes(BenchmarkFixtures.user(1));
+        serverExecutor = Executors.newFixedThreadPool(32);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/api/users", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, user.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(user);
+            }
+        });
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        client = switch (transport) {
+            case "default" -> new Client.Default(null, null);
+            case "hc5" -> {
+                apacheClient = HttpClients.custom()
+                        .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                                .setMaxConnTotal(200)
+                                .setMaxConnPerRoute(50)
+                                .build())
+                        .build();
+                yield new ApacheHttp5Client(apacheClient);
+            }
+            case "jdk" -> new Http2Client(HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build());
+            default -> throw new IllegalArgumentException(transport);
+        };
+
+        Map<String, Collection<String>> headers = Map.of("Accept", List.of("application/json"));
+        request = Request.create(Request.HttpMethod.GET,
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/api/users/1",
+                headers, null, StandardCharsets.UTF_8, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (apacheClient != null) {
+            apacheClient.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int getUser() throws IOException {
+        try (Response response = client.execute(request, options);
+                InputStream body = response.body().asInputStream()) {
+            return body.readAllBytes().length;
+        }
+    }
+
+}
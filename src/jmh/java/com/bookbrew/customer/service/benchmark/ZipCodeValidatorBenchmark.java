@@ -0,0 +1,50 @@
+package com.bookbrew.customer.service.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bookbrew.customer.service.custom.annotations.ZipCodeValidator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZipCodeValidatorBenchmark {
+
+    @Param({ "01001-000", "01001000", "0100-1000" })
+    private String zipCode;
+
+    private final ZipCodeValidator validator = new ZipCodeValidator();
+
+    @Benchmark
+    public boolean regexIsValid() {
+        if (zipCode == null || zipCode.isEmpty()) {
+            return false;
+        }
+
+        return zipCode.matches("^\\d{5}-\\d{3}$") || zipCode.matches("^\\d{8}$");
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(zipCode, null);
+    }
+
+    @Benchmark
+    public String normalize() {
+        return ZipCodeValidator.normalize(zipCode);
+    }
+
+}
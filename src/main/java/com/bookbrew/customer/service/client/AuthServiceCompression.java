@@ -0,0 +1,97 @@
+package com.bookbrew.customer.service.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import feign.Capability;
+import feign.Client;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+
+// gzip in both directions; the JDK HTTP/2 client neither compresses requests nor decodes responses on its own
+@Component
+public class AuthServiceCompression implements RequestInterceptor, Capability {
+
+    private static final String GZIP = "gzip";
+
+    @Autowired(required = false)
+    private Client transport;
+
+    @Value("${auth.service.compression.request.enabled:false}")
+    private boolean requestCompressionEnabled;
+
+    @Value("${auth.service.compression.request.min-size:2048}")
+    private int requestMinSize;
+
+    @Value("${auth.service.compression.response.enabled:true}")
+    private boolean responseCompressionEnabled;
+
+    @Override
+    public void apply(RequestTemplate template) {
+        if (responseCompressionEnabled && !template.headers().containsKey("Accept-Encoding")) {
+            template.header("Accept-Encoding", GZIP);
+        }
+
+        byte[] body = template.body();
+        if (requestCompressionEnabled && body != null && body.length >= requestMinSize
+                && !template.headers().containsKey("Content-Encoding")) {
+            // feign-hc5 streams the body through gzip itself when it sees the header
+            if (!(transport instanceof ApacheHttp5Client)) {
+                template.body(gzip(body), null);
+            }
+            template.header("Content-Encoding", GZIP);
+        }
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> decompress(client.execute(request, options));
+    }
+
+    private Response decompress(Response response) throws IOException {
+        Collection<String> encoding = header(response, "Content-Encoding");
+        if (response.body() == null || encoding == null || !encoding.contains(GZIP)) {
+            return response;
+        }
+
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(response.headers());
+        headers.keySet().removeIf(name -> name.equalsIgnoreCase("Content-Encoding")
+                || name.equalsIgnoreCase("Content-Length"));
+        return response.toBuilder()
+                .headers(headers)
+                .body(new GZIPInputStream(response.body().asInputStream()), null)
+                .build();
+    }
+
+    private Collection<String> header(Response response, String name) {
+        for (Map.Entry<String, Collection<String>> header : response.headers().entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.bookbrew.customer.service.client;
+
+import java.time.Duration;
+
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+// pool sizes and time-to-live come from spring.cloud.openfeign.httpclient.*; this caps how long idle connections live
+@Component
+public class AuthServiceHttpClientCustomizer implements HttpClientBuilderCustomizer {
+
+    @Value("${auth.service.http.keep-alive:PT30S}")
+    private Duration keepAlive;
+
+    @Override
+    public void customize(HttpClientBuilder builder) {
+        TimeValue maxKeepAlive = TimeValue.ofMilliseconds(keepAlive.toMillis());
+        builder.setKeepAliveStrategy((response, context) -> {
+            TimeValue advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return advertised.compareTo(maxKeepAlive) < 0 ? advertised : maxKeepAlive;
+        });
+        builder.evictIdleConnections(maxKeepAlive);
+    }
+
+}
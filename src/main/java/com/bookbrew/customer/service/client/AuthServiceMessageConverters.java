@@ -0,0 +1,21 @@
+package com.bookbrew.customer.service.client;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Boot only provides the converters Feign encodes and decodes with for servlet apps; UserClient still serves the
+// write paths under the reactive profile
+@Component
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class AuthServiceMessageConverters extends HttpMessageConverters {
+
+    public AuthServiceMessageConverters(ObjectMapper objectMapper) {
+        super(new MappingJackson2HttpMessageConverter(objectMapper));
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.bookbrew.customer.service.client;
+
+import org.springframework.stereotype.Component;
+
+import feign.Response;
+import feign.micrometer.DefaultFeignObservationConvention;
+import feign.micrometer.FeignContext;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import io.micrometer.observation.GlobalObservationConvention;
+import io.micrometer.observation.Observation;
+
+// http.client.requests for Feign calls, tagged with the Feign method and the outcome next to the status
+@Component
+public class AuthServiceObservationConvention extends DefaultFeignObservationConvention
+        implements GlobalObservationConvention<FeignContext> {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(FeignContext context) {
+        Response response = context.getResponse();
+        String outcome = response != null ? Outcome.forStatus(response.status()).name() : "UNKNOWN";
+        String operation = context.getCarrier().requestTemplate() != null
+                && context.getCarrier().requestTemplate().methodMetadata() != null
+                        ? context.getCarrier().requestTemplate().methodMetadata().configKey()
+                        : "UNKNOWN";
+        return super.getLowCardinalityKeyValues(context)
+                .and(KeyValue.of("outcome", outcome), KeyValue.of("operation", operation));
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context instanceof FeignContext;
+    }
+
+}
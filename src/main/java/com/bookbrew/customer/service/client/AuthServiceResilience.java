@@ -0,0 +1,420 @@
+package com.bookbrew.customer.service.client;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import com.bookbrew.customer.service.dto.AuthServiceOperationStatsDTO;
+import com.bookbrew.customer.service.exception.ServiceUnavailableException;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Mono;
+
+// wraps the HTTP client of every Feign client, so 4xx/5xx still surface as FeignException to the callers, and the
+// WebClient of ReactiveUserClient
+@Component
+public class AuthServiceResilience implements Capability {
+
+    static final String HEDGED_OPERATION = "UserClient#getUserById(Long)";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.service.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${auth.service.circuit-breaker.slow-call-threshold:PT2S}")
+    private Duration slowCallThreshold;
+
+    @Value("${auth.service.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+
+    @Value("${auth.service.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${auth.service.circuit-breaker.open-duration:PT10S}")
+    private Duration openDuration;
+
+    @Value("${auth.service.bulkhead.max-concurrent-calls:25}")
+    private int maxConcurrentCalls;
+
+    @Value("${auth.service.bulkhead.max-wait:PT0S}")
+    private Duration maxWait;
+
+    @Value("${auth.service.reactive.bulkhead.max-concurrent-calls:500}")
+    private int reactiveMaxConcurrentCalls;
+
+    @Value("${auth.service.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${auth.service.hedging.min-delay:PT0.05S}")
+    private Duration hedgingMinDelay;
+
+    @Value("${auth.service.hedging.min-samples:50}")
+    private long hedgingMinSamples;
+
+    private CircuitBreakerRegistry circuitBreakers;
+
+    private BulkheadRegistry bulkheads;
+
+    private BulkheadConfig reactiveBulkhead;
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    private ExecutorService hedgeExecutor;
+
+    @PostConstruct
+    void init() {
+        circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(Math.max(1, minimumCalls / 2))
+                .recordExceptions(IOException.class, ServerErrorException.class)
+                .build());
+        bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build());
+        // a reactive call holds no thread while it waits, so its limit is about connections rather than threads
+        reactiveBulkhead = BulkheadConfig.custom()
+                .maxConcurrentCalls(reactiveMaxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        // platform threads: callers may block on a hedge while pinned inside a cache loader. Every attempt takes
+        // its bulkhead permit before it is handed over, so the bulkhead limit is all the threads it ever needs
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrentCalls, maxConcurrentCalls, 1,
+                TimeUnit.MINUTES, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "auth-service-hedge");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        hedgeExecutor = executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            Operation operation = operation(request);
+            if (hedgingEnabled && operation.name.equals(HEDGED_OPERATION)
+                    && request.httpMethod() == Request.HttpMethod.GET) {
+                return executeHedged(client, request, options, operation);
+            }
+            return execute(client, request, options, operation);
+        };
+    }
+
+    // the same circuit breaker and bulkhead per operation for ReactiveUserClient, keyed by its operation attribute
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> {
+            String name = request.attribute(ReactiveAuthServiceObservationConvention.OPERATION)
+                    .map(String.class::cast)
+                    .orElseGet(() -> request.method() + " " + request.url());
+            Operation operation = operations.computeIfAbsent(name, key -> createOperation(key,
+                    bulkheads.bulkhead(key, reactiveBulkhead)));
+
+            return Mono.defer(() -> {
+                acquire(operation);
+                long start = System.nanoTime();
+                AtomicBoolean recorded = new AtomicBoolean();
+                return next.exchange(request)
+                        .doOnNext(response -> {
+                            recorded.set(true);
+                            long elapsed = System.nanoTime() - start;
+                            operation.latency.record(elapsed);
+                            if (response.statusCode().is5xxServerError()) {
+                                operation.circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS,
+                                        new ServerErrorException(response.statusCode().value()));
+                            } else {
+                                operation.circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+                            }
+                        })
+                        // connect failures and response timeouts, which Feign reports as IOException
+                        .doOnError(e -> {
+                            if (recorded.compareAndSet(false, true)) {
+                                operation.circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS,
+                                        new IOException(e.getMessage(), e));
+                            }
+                        })
+                        .doFinally(signal -> {
+                            // cancelled before an answer: the call says nothing about auth-service
+                            if (recorded.compareAndSet(false, true)) {
+                                operation.circuitBreaker.releasePermission();
+                            }
+                            operation.bulkhead.onComplete();
+                        });
+            });
+        };
+    }
+
+    public List<AuthServiceOperationStatsDTO> getOperationStats() {
+        List<AuthServiceOperationStatsDTO> stats = new ArrayList<>();
+        for (Operation operation : operations.values()) {
+            CircuitBreaker.Metrics metrics = operation.circuitBreaker.getMetrics();
+            Duration p95 = operation.latency.p95(1);
+
+            AuthServiceOperationStatsDTO statsDTO = new AuthServiceOperationStatsDTO();
+            statsDTO.setOperation(operation.name);
+            statsDTO.setState(operation.circuitBreaker.getState().name());
+            statsDTO.setFailureRate(metrics.getFailureRate());
+            statsDTO.setSlowCallRate(metrics.getSlowCallRate());
+            statsDTO.setSuccessfulCalls(metrics.getNumberOfSuccessfulCalls());
+            statsDTO.setFailedCalls(metrics.getNumberOfFailedCalls());
+            statsDTO.setNotPermittedCalls(metrics.getNumberOfNotPermittedCalls());
+            statsDTO.setAvailableConcurrentCalls(operation.bulkhead.getMetrics().getAvailableConcurrentCalls());
+            statsDTO.setRejectedByBulkhead(operation.rejectedByBulkhead.sum());
+            statsDTO.setP95LatencyMillis(p95 != null ? p95.toMillis() : null);
+            statsDTO.setHedgesSent(operation.hedgesSent.sum());
+            statsDTO.setHedgesWon(operation.hedgesWon.sum());
+            stats.add(statsDTO);
+        }
+        stats.sort((a, b) -> a.getOperation().compareTo(b.getOperation()));
+        return stats;
+    }
+
+    private Operation operation(Request request) {
+        String name = request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null
+                ? request.requestTemplate().methodMetadata().configKey()
+                : request.httpMethod() + " " + request.url();
+        return operations.computeIfAbsent(name, key -> createOperation(key, bulkheads.bulkhead(key)));
+    }
+
+    private Operation createOperation(String name, Bulkhead bulkhead) {
+        Operation operation = new Operation(name, circuitBreakers.circuitBreaker(name), bulkhead);
+        registerCounter("auth.service.bulkhead.rejected", operation, operation.rejectedByBulkhead);
+        registerCounter("auth.service.hedges.sent", operation, operation.hedgesSent);
+        registerCounter("auth.service.hedges.won", operation, operation.hedgesWon);
+        return operation;
+    }
+
+    private void registerCounter(String name, Operation operation, LongAdder adder) {
+        FunctionCounter.builder(name, adder, LongAdder::sum)
+                .tag("operation", operation.name)
+                .register(meterRegistry);
+    }
+
+    private Response execute(Client client, Request request, Request.Options options, Operation operation)
+            throws IOException {
+        acquire(operation);
+        return call(client, request, options, operation);
+    }
+
+    private void acquire(Operation operation) {
+        if (!operation.circuitBreaker.tryAcquirePermission()) {
+            throw new ServiceUnavailableException("auth-service circuit is open for " + operation.name);
+        }
+        if (!operation.bulkhead.tryAcquirePermission()) {
+            operation.circuitBreaker.releasePermission();
+            operation.rejectedByBulkhead.increment();
+            throw new ServiceUnavailableException("Too many concurrent auth-service calls for " + operation.name);
+        }
+    }
+
+    // a hedge is only an extra, so one that does not get both permissions is simply not sent
+    private boolean tryAcquireHedge(Operation operation) {
+        if (!operation.circuitBreaker.tryAcquirePermission()) {
+            return false;
+        }
+        if (!operation.bulkhead.tryAcquirePermission()) {
+            operation.circuitBreaker.releasePermission();
+            return false;
+        }
+        return true;
+    }
+
+    // runs with the permissions already taken and gives the bulkhead one back when done
+    private Response call(Client client, Request request, Request.Options options, Operation operation)
+            throws IOException {
+        long start = System.nanoTime();
+        try {
+            Response response = client.execute(request, options);
+            long elapsed = System.nanoTime() - start;
+            operation.latency.record(elapsed);
+            if (response.status() >= 500) {
+                operation.circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS,
+                        new ServerErrorException(response.status()));
+            } else {
+                operation.circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            operation.circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        } finally {
+            operation.bulkhead.onComplete();
+        }
+    }
+
+    // sends a second request when the first one is slower than the recent p95 and keeps whichever answers first
+    private Response executeHedged(Client client, Request request, Request.Options options, Operation operation)
+            throws IOException {
+        Duration p95 = operation.latency.p95(hedgingMinSamples);
+        if (p95 == null) {
+            return execute(client, request, options, operation);
+        }
+        Duration delay = p95.compareTo(hedgingMinDelay) > 0 ? p95 : hedgingMinDelay;
+
+        // an open circuit or a full bulkhead fails the caller here, before anything is handed over
+        acquire(operation);
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger(1);
+        CompletableFuture<Response> primary = submit(client, request, options, operation);
+        primary.whenComplete((response, error) -> settle(winner, response, error, failures, attempts));
+
+        try {
+            return winner.get(delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (!tryAcquireHedge(operation)) {
+                return await(winner);
+            }
+            // counted before it is sent, so a primary failing from now on waits for the hedge
+            attempts.incrementAndGet();
+            if (winner.isDone()) {
+                operation.circuitBreaker.releasePermission();
+                operation.bulkhead.onComplete();
+                return await(winner);
+            }
+            operation.hedgesSent.increment();
+            CompletableFuture<Response> hedge = submit(client, request, options, operation);
+            hedge.whenComplete((response, error) -> settle(winner, response, error, failures, attempts));
+            Response response = await(winner);
+            // the hedge is already done when it settled the winner, so this is decided before returning
+            if (hedge.isDone() && !hedge.isCompletedExceptionally() && hedge.getNow(null) == response) {
+                operation.hedgesWon.increment();
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for auth-service", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private CompletableFuture<Response> submit(Client client, Request request, Request.Options options,
+            Operation operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call(client, request, options, operation);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, hedgeExecutor);
+    }
+
+    // the caller fails once every attempt sent so far has failed, so a primary that fails before the hedge
+    // is sent is not waited on
+    private void settle(CompletableFuture<Response> winner, Response response, Throwable error,
+            AtomicInteger failures, AtomicInteger attempts) {
+        if (error == null) {
+            if (!winner.complete(response)) {
+                response.close();
+            }
+        } else if (failures.incrementAndGet() >= attempts.get() || winner.isDone()) {
+            winner.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+        }
+    }
+
+    private Response await(CompletableFuture<Response> winner) throws IOException {
+        try {
+            return winner.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for auth-service", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private IOException rethrow(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof IOException ioException) {
+            return ioException;
+        }
+        if (error instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        return new IOException(error);
+    }
+
+    private static class Operation {
+
+        private final String name;
+
+        private final CircuitBreaker circuitBreaker;
+
+        private final Bulkhead bulkhead;
+
+        private final LatencyTracker latency = new LatencyTracker();
+
+        private final LongAdder rejectedByBulkhead = new LongAdder();
+
+        private final LongAdder hedgesSent = new LongAdder();
+
+        private final LongAdder hedgesWon = new LongAdder();
+
+        Operation(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+            this.name = name;
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+        }
+
+    }
+
+    static class ServerErrorException extends RuntimeException {
+
+        ServerErrorException(int status) {
+            super("auth-service answered " + status);
+        }
+
+    }
+
+}
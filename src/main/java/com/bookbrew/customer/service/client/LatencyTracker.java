@@ -0,0 +1,39 @@
+package com.bookbrew.customer.service.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+class LatencyTracker {
+
+    private static final int WINDOW = 256;
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples = new long[WINDOW];
+
+    private long count;
+
+    private volatile long p95Nanos = -1;
+
+    synchronized void record(long nanos) {
+        samples[(int) (count % WINDOW)] = nanos;
+        count++;
+
+        if (count <= RECOMPUTE_EVERY || count % RECOMPUTE_EVERY == 0) {
+            long[] window = Arrays.copyOf(samples, (int) Math.min(count, WINDOW));
+            Arrays.sort(window);
+            p95Nanos = window[(int) Math.ceil(window.length * 0.95) - 1];
+        }
+    }
+
+    synchronized long count() {
+        return count;
+    }
+
+    // null until enough calls have been seen to trust the percentile
+    Duration p95(long minSamples) {
+        long p95 = p95Nanos;
+        return p95 < 0 || count() < minSamples ? null : Duration.ofNanos(p95);
+    }
+
+}
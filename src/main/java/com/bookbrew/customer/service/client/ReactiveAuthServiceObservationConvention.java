@@ -0,0 +1,50 @@
+package com.bookbrew.customer.service.client;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientRequestObservationContext;
+import org.springframework.web.reactive.function.client.ClientRequestObservationConvention;
+import org.springframework.web.reactive.function.client.ClientResponse;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.binder.http.Outcome;
+
+// http.client.requests for ReactiveUserClient with the tag keys AuthServiceObservationConvention gives Feign calls;
+// Prometheus drops every meter of a name whose tag keys differ from the first one registered
+class ReactiveAuthServiceObservationConvention implements ClientRequestObservationConvention {
+
+    static final String OPERATION = ReactiveAuthServiceObservationConvention.class.getName() + ".operation";
+
+    @Override
+    public String getName() {
+        return "http.client.requests";
+    }
+
+    @Override
+    public String getContextualName(ClientRequestObservationContext context) {
+        ClientRequest request = context.getRequest();
+        return request != null ? "HTTP " + request.method().name() : "HTTP";
+    }
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ClientRequestObservationContext context) {
+        ClientRequest request = context.getRequest();
+        ClientResponse response = context.getResponse();
+        String url = context.getUriTemplate() != null
+                ? context.getUriTemplate().replaceFirst("^https?://[^/]+", "")
+                : request != null ? request.url().getPath() : "UNKNOWN";
+        String operation = request != null
+                ? (String) request.attribute(OPERATION).orElse("UNKNOWN")
+                : "UNKNOWN";
+        return KeyValues.of(
+                KeyValue.of("http.method", request != null ? request.method().name() : "UNKNOWN"),
+                KeyValue.of("http.url", url),
+                KeyValue.of("http.status_code",
+                        response != null ? String.valueOf(response.statusCode().value()) : "CLIENT_ERROR"),
+                KeyValue.of("clientName", ReactiveUserClient.class.getName()),
+                KeyValue.of("outcome",
+                        response != null ? Outcome.forStatus(response.statusCode().value()).name() : "UNKNOWN"),
+                KeyValue.of("operation", operation));
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.bookbrew.customer.service.client;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.bookbrew.customer.service.dto.UserDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+// non-blocking counterpart of UserClient for the reactive stack, with the same timeouts, circuit breakers and
+// bulkheads; unknown users are empty
+@Component
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveUserClient {
+
+    private final ConnectionProvider connections;
+
+    private final WebClient webClient;
+
+    public ReactiveUserClient(WebClient.Builder builder, AuthServiceResilience resilience,
+            @Value("${auth.service.url}") String url,
+            @Value("${spring.cloud.openfeign.client.config.auth-service.connect-timeout:1000}") int connectTimeout,
+            @Value("${spring.cloud.openfeign.client.config.auth-service.read-timeout:3000}") int readTimeout,
+            @Value("${auth.service.reactive.max-connections:500}") int maxConnections,
+            @Value("${auth.service.reactive.pending-acquire-timeout:PT1S}") Duration pendingAcquireTimeout) {
+        connections = ConnectionProvider.builder("auth-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .build();
+        HttpClient httpClient = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .responseTimeout(Duration.ofMillis(readTimeout))
+                .compress(true);
+        // the auto-configured builder carries the observation registry, so calls show up in http.client.requests
+        this.webClient = builder.clone()
+                .baseUrl(url)
+                .observationConvention(new ReactiveAuthServiceObservationConvention())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(resilience.exchangeFilter())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        connections.dispose();
+    }
+
+    public Mono<UserResponseDTO> createUser(UserDTO userDTO) {
+        return webClient.post().uri("/api/users")
+                .attribute(ReactiveAuthServiceObservationConvention.OPERATION, "ReactiveUserClient#createUser(UserDTO)")
+                .bodyValue(userDTO)
+                .retrieve()
+                .bodyToMono(UserResponseDTO.class);
+    }
+
+    public Mono<UserResponseDTO> getUserById(Long userId) {
+        return webClient.get().uri("/api/users/{userId}", userId)
+                .attribute(ReactiveAuthServiceObservationConvention.OPERATION, "ReactiveUserClient#getUserById(Long)")
+                .retrieve()
+                .bodyToMono(UserResponseDTO.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+    }
+
+    public Flux<UserResponseDTO> getUsersByIds(List<Long> ids) {
+        return webClient.get().uri(uri -> uri.path("/api/users/batch").queryParam("ids", ids).build())
+                .attribute(ReactiveAuthServiceObservationConvention.OPERATION,
+                        "ReactiveUserClient#getUsersByIds(List)")
+                .retrieve()
+                .bodyToFlux(UserResponseDTO.class);
+    }
+
+    public Mono<UserDTO> updateUser(Long userId, UserDTO userDTO) {
+        return webClient.put().uri("/api/users/{userId}", userId)
+                .attribute(ReactiveAuthServiceObservationConvention.OPERATION,
+                        "ReactiveUserClient#updateUser(Long,UserDTO)")
+                .bodyValue(userDTO)
+                .retrieve()
+                .bodyToMono(UserDTO.class);
+    }
+
+    public Mono<Void> deleteUser(Long userId) {
+        return webClient.delete().uri("/api/users/{userId}", userId)
+                .attribute(ReactiveAuthServiceObservationConvention.OPERATION, "ReactiveUserClient#deleteUser(Long)")
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.bookbrew.customer.service.client;
 
+import java.util.List;
+
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -7,6 +9,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.bookbrew.customer.service.dto.UserDTO;
 import com.bookbrew.customer.service.dto.UserProfileDTO;
@@ -21,6 +24,9 @@ public interface UserClient {
     @GetMapping("/api/users/{userId}")
     UserResponseDTO getUserById(@PathVariable Long userId);
 
+    @GetMapping("/api/users/batch")
+    List<UserResponseDTO> getUsersByIds(@RequestParam("ids") List<Long> ids);
+
     @PutMapping("/api/users/{userId}")
     UserDTO updateUser(@PathVariable Long userId, @RequestBody UserDTO userDTO);
 
@@ -1,19 +0,0 @@
-package com.bookbrew.customer.service.config;
-
-import org.modelmapper.ModelMapper;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-@Configuration
-public class ModelMapperConfig {
-
-    @Bean
-    ModelMapper modelMapper() {
-        ModelMapper modelMapper = new ModelMapper();
-        modelMapper.getConfiguration()
-                .setPropertyCondition(context -> context.getSource() != null)
-                .setSkipNullEnabled(true)
-                .setAmbiguityIgnored(true);
-        return modelMapper;
-    }
-}
\ No newline at end of file
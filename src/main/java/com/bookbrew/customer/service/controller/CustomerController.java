@@ -1,9 +1,18 @@
 package com.bookbrew.customer.service.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,38 +21,92 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import com.bookbrew.customer.service.dto.AddressUpdateDTO;
 import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.dto.CustomerPageDTO;
 import com.bookbrew.customer.service.dto.CustomerSearchDTO;
+import com.bookbrew.customer.service.dto.CustomerSearchFilterDTO;
 import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.service.CustomerExportService;
+import com.bookbrew.customer.service.service.CustomerImportService;
 import com.bookbrew.customer.service.service.CustomerService;
+import com.bookbrew.customer.service.service.EntityTags;
+import com.bookbrew.customer.service.service.Versioned;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/api/customers")
 @CrossOrigin
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class CustomerController {
 
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private CustomerImportService customerImportService;
+
+    @Autowired
+    private CustomerExportService customerExportService;
+
+    @Value("${customer.import.request-timeout:PT30M}")
+    private Duration importTimeout;
+
+    @Value("${customer.export.request-timeout:PT30M}")
+    private Duration exportTimeout;
+
     @GetMapping
-    public ResponseEntity<List<CustomerSearchDTO>> getAllCustomers() {
-        return ResponseEntity.ok(customerService.findAll());
+    public ResponseEntity<CustomerPageDTO> getAllCustomers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return ResponseEntity.ok(customerService.findAfter(cursor, size));
+        }
+        return ResponseEntity.ok(customerService.findPage(page, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CustomerPageDTO> searchCustomers(CustomerSearchFilterDTO filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(customerService.search(filter, cursor, size));
+    }
+
+    // streamed on an async thread with its own timeout instead of the container-wide one
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportCustomers(@RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        customerExportService.checkFormat(format);
+        response.setContentType(CustomerExportService.CSV.equals(format) ? "text/csv"
+                : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=customers." + format);
+        // opened on the request thread, as StreamingResponseBody does, so headers are not touched concurrently
+        OutputStream output = response.getOutputStream();
+
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            customerExportService.export(format, output);
+            return null;
+        });
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CustomerSearchDTO> getCustomerById(@PathVariable Long id) {
-        return ResponseEntity.ok(customerService.findById(id));
+    public ResponseEntity<CustomerSearchDTO> getCustomerById(@PathVariable Long id, WebRequest request) {
+        return conditional(customerService.findById(id), request);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<CustomerSearchDTO> getCustomerByUserId(@PathVariable Long userId) {
-        return ResponseEntity.ok(customerService.findCustomerByUserId(userId));
+    public ResponseEntity<CustomerSearchDTO> getCustomerByUserId(@PathVariable Long userId, WebRequest request) {
+        return conditional(customerService.findCustomerByUserId(userId), request);
     }
 
     @PostMapping
@@ -51,10 +114,24 @@ public class CustomerController {
         return ResponseEntity.status(HttpStatus.CREATED).body(customerService.createCustomer(customerDTO));
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> importCustomers(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream output = response.getOutputStream();
+
+        return new WebAsyncTask<>(importTimeout.toMillis(), () -> {
+            customerImportService.importCustomers(body, output);
+            return null;
+        });
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<CustomerSearchDTO> updateCustomer(@PathVariable Long id,
-            @RequestBody CustomerDTO customerUpdateDTO) {
-        return ResponseEntity.ok(customerService.update(id, customerUpdateDTO));
+            @RequestBody CustomerDTO customerUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Versioned<CustomerSearchDTO> customer = customerService.update(id, customerUpdateDTO, ifMatch);
+        return ResponseEntity.ok().eTag(customer.getETag()).body(customer.getBody());
     }
 
     @DeleteMapping("/{id}")
@@ -66,13 +143,14 @@ public class CustomerController {
     @GetMapping("/{customerId}/addresses/{addressId}")
     public ResponseEntity<Address> getCustomerAddressById(
             @PathVariable Long customerId,
-            @PathVariable Long addressId) {
-        return ResponseEntity.ok(customerService.getAddressById(customerId, addressId));
+            @PathVariable Long addressId,
+            WebRequest request) {
+        return conditional(customerService.getAddressById(customerId, addressId), request);
     }
 
     @GetMapping("/{customerId}/addresses")
-    public ResponseEntity<List<Address>> getCustomerAddresses(@PathVariable Long customerId) {
-        return ResponseEntity.ok(customerService.getAddresses(customerId));
+    public ResponseEntity<List<Address>> getCustomerAddresses(@PathVariable Long customerId, WebRequest request) {
+        return conditional(customerService.getAddresses(customerId), request);
     }
 
     @PostMapping("/{customerId}/addresses")
@@ -86,8 +164,10 @@ public class CustomerController {
     public ResponseEntity<Address> updateCustomerAddress(
             @PathVariable Long customerId,
             @PathVariable Long addressId,
-            @Valid @RequestBody AddressUpdateDTO address) {
-        return ResponseEntity.ok(customerService.updateAddress(customerId, addressId, address));
+            @Valid @RequestBody AddressUpdateDTO address,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Address updated = customerService.updateAddress(customerId, addressId, address, ifMatch);
+        return ResponseEntity.ok().eTag(EntityTags.address(updated)).body(updated);
     }
 
     @DeleteMapping("/{customerId}/addresses/{addressId}")
@@ -98,4 +178,12 @@ public class CustomerController {
         return ResponseEntity.noContent().build();
     }
 
+    // a matching If-None-Match is answered with 304 before the body is mapped or serialized
+    private <T> ResponseEntity<T> conditional(Versioned<T> versioned, WebRequest request) {
+        if (request.checkNotModified(versioned.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versioned.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(versioned.getETag()).body(versioned.getBody());
+    }
+
 }
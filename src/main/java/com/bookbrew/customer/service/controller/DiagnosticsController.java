@@ -0,0 +1,36 @@
+package com.bookbrew.customer.service.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.bookbrew.customer.service.client.AuthServiceResilience;
+import com.bookbrew.customer.service.dto.AuthServiceOperationStatsDTO;
+import com.bookbrew.customer.service.dto.UserCacheStatsDTO;
+import com.bookbrew.customer.service.service.UserLookupService;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+
+    @Autowired
+    private UserLookupService userLookupService;
+
+    @Autowired
+    private AuthServiceResilience authServiceResilience;
+
+    @GetMapping("/user-cache")
+    public ResponseEntity<UserCacheStatsDTO> getUserCacheStats() {
+        return ResponseEntity.ok(userLookupService.getCacheStats());
+    }
+
+    @GetMapping("/auth-service")
+    public ResponseEntity<List<AuthServiceOperationStatsDTO>> getAuthServiceStats() {
+        return ResponseEntity.ok(authServiceResilience.getOperationStats());
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.bookbrew.customer.service.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.stereotype.Component;
+
+// Tomcat stays on the classpath for the servlet stack and would otherwise be picked for the reactive one too
+@Component
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class NettyServerFactory extends NettyReactiveWebServerFactory {
+
+}
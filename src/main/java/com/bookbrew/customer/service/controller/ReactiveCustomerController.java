@@ -0,0 +1,171 @@
+package com.bookbrew.customer.service.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.bookbrew.customer.service.dto.AddressUpdateDTO;
+import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.dto.CustomerPageDTO;
+import com.bookbrew.customer.service.dto.CustomerSearchDTO;
+import com.bookbrew.customer.service.dto.CustomerSearchFilterDTO;
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.service.CustomerExportService;
+import com.bookbrew.customer.service.service.EntityTags;
+import com.bookbrew.customer.service.service.ReactiveCustomerService;
+import com.bookbrew.customer.service.service.Versioned;
+
+import jakarta.validation.Valid;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// the /api/customers API of CustomerController on WebFlux, active with the reactive profile
+@RestController
+@RequestMapping("/api/customers")
+@CrossOrigin
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveCustomerController {
+
+    @Autowired
+    private ReactiveCustomerService customerService;
+
+    @GetMapping
+    public Mono<ResponseEntity<CustomerPageDTO>> getAllCustomers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        Mono<CustomerPageDTO> customers = cursor != null
+                ? customerService.findAfter(cursor, size)
+                : customerService.findPage(page, size);
+        return customers.map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<CustomerPageDTO>> searchCustomers(CustomerSearchFilterDTO filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return customerService.search(filter, cursor, size).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> exportCustomers(@RequestParam(defaultValue = "ndjson") String format,
+            ServerWebExchange exchange) {
+        Flux<DataBuffer> body = customerService.export(format, exchange.getResponse().bufferFactory());
+        MediaType contentType = CustomerExportService.CSV.equals(format)
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.APPLICATION_NDJSON;
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=customers." + format)
+                .body(body);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<CustomerSearchDTO>> getCustomerById(@PathVariable Long id,
+            ServerWebExchange exchange) {
+        return customerService.findById(id).map(customer -> conditional(customer, exchange));
+    }
+
+    @GetMapping("/user/{userId}")
+    public Mono<ResponseEntity<CustomerSearchDTO>> getCustomerByUserId(@PathVariable Long userId,
+            ServerWebExchange exchange) {
+        return customerService.findCustomerByUserId(userId).map(customer -> conditional(customer, exchange));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<CustomerDTO>> createCustomer(@RequestBody CustomerDTO customerDTO) {
+        return customerService.createCustomer(customerDTO)
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<DataBuffer>> importCustomers(ServerWebExchange exchange) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(customerService.importCustomers(exchange.getRequest().getBody(),
+                        exchange.getResponse().bufferFactory()));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<CustomerSearchDTO>> updateCustomer(@PathVariable Long id,
+            @RequestBody CustomerDTO customerUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return customerService.update(id, customerUpdateDTO, ifMatch)
+                .map(customer -> ResponseEntity.ok().eTag(customer.getETag()).body(customer.getBody()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCustomer(@PathVariable Long id) {
+        return customerService.deleteCustomer(id).then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    @GetMapping("/{customerId}/addresses/{addressId}")
+    public Mono<ResponseEntity<Address>> getCustomerAddressById(
+            @PathVariable Long customerId,
+            @PathVariable Long addressId,
+            ServerWebExchange exchange) {
+        return customerService.getAddressById(customerId, addressId).map(address -> conditional(address, exchange));
+    }
+
+    @GetMapping("/{customerId}/addresses")
+    public Mono<ResponseEntity<List<Address>>> getCustomerAddresses(@PathVariable Long customerId,
+            ServerWebExchange exchange) {
+        return customerService.getAddresses(customerId).map(addresses -> conditional(addresses, exchange));
+    }
+
+    @PostMapping("/{customerId}/addresses")
+    public Mono<ResponseEntity<Address>> addCustomerAddress(
+            @PathVariable Long customerId,
+            @Valid @RequestBody Address address) {
+        return customerService.addAddress(customerId, address)
+                .map(added -> ResponseEntity.status(HttpStatus.CREATED).body(added));
+    }
+
+    @PutMapping("/{customerId}/addresses/{addressId}")
+    public Mono<ResponseEntity<Address>> updateCustomerAddress(
+            @PathVariable Long customerId,
+            @PathVariable Long addressId,
+            @Valid @RequestBody AddressUpdateDTO address,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return customerService.updateAddress(customerId, addressId, address, ifMatch)
+                .map(updated -> ResponseEntity.ok().eTag(EntityTags.address(updated)).body(updated));
+    }
+
+    @DeleteMapping("/{customerId}/addresses/{addressId}")
+    public Mono<ResponseEntity<Void>> deleteCustomerAddress(
+            @PathVariable Long customerId,
+            @PathVariable Long addressId) {
+        return customerService.deleteCustomerAddress(customerId, addressId)
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    // a matching If-None-Match is answered with 304 before the body is mapped or serialized
+    private <T> ResponseEntity<T> conditional(Versioned<T> versioned, ServerWebExchange exchange) {
+        if (exchange.checkNotModified(versioned.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(versioned.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(versioned.getETag()).body(versioned.getBody());
+    }
+
+}
@@ -5,16 +5,53 @@ import jakarta.validation.ConstraintValidatorContext;
 
 public class ZipCodeValidator implements ConstraintValidator<ZipCode, String> {
 
+    private static final int COMPACT_LENGTH = 8;
+
+    private static final int HYPHENATED_LENGTH = 9;
+
+    private static final int HYPHEN_INDEX = 5;
+
     @Override
     public void initialize(ZipCode constraintAnnotation) {
     }
 
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
-        if (value == null || value.isEmpty()) {
+        return isValidZipCode(value);
+    }
+
+    // accepts 00000-000 and 00000000 without regex or intermediate strings
+    public static boolean isValidZipCode(String value) {
+        if (value == null) {
             return false;
         }
 
-        return value.matches("^\\d{5}-\\d{3}$") || value.matches("^\\d{8}$");
+        int length = value.length();
+        if (length == COMPACT_LENGTH) {
+            return allDigits(value, 0, COMPACT_LENGTH);
+        }
+
+        return length == HYPHENATED_LENGTH
+                && value.charAt(HYPHEN_INDEX) == '-'
+                && allDigits(value, 0, HYPHEN_INDEX)
+                && allDigits(value, HYPHEN_INDEX + 1, HYPHENATED_LENGTH);
+    }
+
+    public static String normalize(String value) {
+        if (value == null || value.length() != HYPHENATED_LENGTH || !isValidZipCode(value)) {
+            return value;
+        }
+
+        return value.substring(0, HYPHEN_INDEX) + value.substring(HYPHEN_INDEX + 1);
+    }
+
+    private static boolean allDigits(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 }
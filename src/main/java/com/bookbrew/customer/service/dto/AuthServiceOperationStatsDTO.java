@@ -0,0 +1,125 @@
+package com.bookbrew.customer.service.dto;
+
+public class AuthServiceOperationStatsDTO {
+
+    private String operation;
+
+    private String state;
+
+    private float failureRate;
+
+    private float slowCallRate;
+
+    private int successfulCalls;
+
+    private int failedCalls;
+
+    private long notPermittedCalls;
+
+    private int availableConcurrentCalls;
+
+    private long rejectedByBulkhead;
+
+    private Long p95LatencyMillis;
+
+    private long hedgesSent;
+
+    private long hedgesWon;
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public float getFailureRate() {
+        return failureRate;
+    }
+
+    public void setFailureRate(float failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public float getSlowCallRate() {
+        return slowCallRate;
+    }
+
+    public void setSlowCallRate(float slowCallRate) {
+        this.slowCallRate = slowCallRate;
+    }
+
+    public int getSuccessfulCalls() {
+        return successfulCalls;
+    }
+
+    public void setSuccessfulCalls(int successfulCalls) {
+        this.successfulCalls = successfulCalls;
+    }
+
+    public int getFailedCalls() {
+        return failedCalls;
+    }
+
+    public void setFailedCalls(int failedCalls) {
+        this.failedCalls = failedCalls;
+    }
+
+    public long getNotPermittedCalls() {
+        return notPermittedCalls;
+    }
+
+    public void setNotPermittedCalls(long notPermittedCalls) {
+        this.notPermittedCalls = notPermittedCalls;
+    }
+
+    public int getAvailableConcurrentCalls() {
+        return availableConcurrentCalls;
+    }
+
+    public void setAvailableConcurrentCalls(int availableConcurrentCalls) {
+        this.availableConcurrentCalls = availableConcurrentCalls;
+    }
+
+    public long getRejectedByBulkhead() {
+        return rejectedByBulkhead;
+    }
+
+    public void setRejectedByBulkhead(long rejectedByBulkhead) {
+        this.rejectedByBulkhead = rejectedByBulkhead;
+    }
+
+    public Long getP95LatencyMillis() {
+        return p95LatencyMillis;
+    }
+
+    public void setP95LatencyMillis(Long p95LatencyMillis) {
+        this.p95LatencyMillis = p95LatencyMillis;
+    }
+
+    public long getHedgesSent() {
+        return hedgesSent;
+    }
+
+    public void setHedgesSent(long hedgesSent) {
+        this.hedgesSent = hedgesSent;
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon;
+    }
+
+    public void setHedgesWon(long hedgesWon) {
+        this.hedgesWon = hedgesWon;
+    }
+
+}
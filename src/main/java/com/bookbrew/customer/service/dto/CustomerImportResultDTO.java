@@ -0,0 +1,76 @@
+package com.bookbrew.customer.service.dto;
+
+public class CustomerImportResultDTO {
+
+    public static final String CREATED = "CREATED";
+
+    public static final String FAILED = "FAILED";
+
+    private long line;
+
+    private String status;
+
+    private Long customerId;
+
+    private Long userId;
+
+    private String error;
+
+    public static CustomerImportResultDTO created(long line, Long customerId, Long userId) {
+        CustomerImportResultDTO result = new CustomerImportResultDTO();
+        result.setLine(line);
+        result.setStatus(CREATED);
+        result.setCustomerId(customerId);
+        result.setUserId(userId);
+        return result;
+    }
+
+    public static CustomerImportResultDTO failed(long line, String error) {
+        CustomerImportResultDTO result = new CustomerImportResultDTO();
+        result.setLine(line);
+        result.setStatus(FAILED);
+        result.setError(error);
+        return result;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(Long customerId) {
+        this.customerId = customerId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+}
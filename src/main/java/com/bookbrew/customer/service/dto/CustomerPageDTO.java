@@ -0,0 +1,57 @@
+package com.bookbrew.customer.service.dto;
+
+import java.util.List;
+
+public class CustomerPageDTO {
+
+    private List<CustomerSearchDTO> content;
+
+    private Integer page;
+
+    private int size;
+
+    private boolean hasNext;
+
+    private String nextCursor;
+
+    public List<CustomerSearchDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<CustomerSearchDTO> content) {
+        this.content = content;
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+}
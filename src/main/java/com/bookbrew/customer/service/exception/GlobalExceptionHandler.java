@@ -2,20 +2,27 @@ package com.bookbrew.customer.service.exception;
 
 import java.util.stream.Collectors;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
+import com.bookbrew.customer.service.model.Address;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import feign.FeignException;
+import feign.RetryableException;
 import jakarta.validation.ConstraintViolationException;
 
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class GlobalExceptionHandler {
 
         @ExceptionHandler(ConstraintViolationException.class)
@@ -73,6 +80,74 @@ public class GlobalExceptionHandler {
                 return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
         }
 
+        @ExceptionHandler(DataIntegrityViolationException.class)
+        public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(
+                        DataIntegrityViolationException ex, WebRequest request) {
+                if (isDuplicateAddress(ex)) {
+                        return handleDuplicateAddressException(
+                                        new DuplicateAddressException("Duplicate addresses are not allowed"), request);
+                }
+                return handleGlobalException(ex, request);
+        }
+
+        private boolean isDuplicateAddress(DataIntegrityViolationException ex) {
+                return ex.getCause() instanceof org.hibernate.exception.ConstraintViolationException violation
+                                && violation.getConstraintName() != null
+                                && violation.getConstraintName().toLowerCase()
+                                                .contains(Address.FINGERPRINT_CONSTRAINT);
+        }
+
+        @ExceptionHandler(RemoteCallTimeoutException.class)
+        public ResponseEntity<ErrorResponse> handleRemoteCallTimeoutException(
+                        RemoteCallTimeoutException ex, WebRequest request) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                "Gateway Timeout",
+                                ex.getMessage(),
+                                request.getDescription(false));
+                return new ResponseEntity<>(errorResponse, HttpStatus.GATEWAY_TIMEOUT);
+        }
+
+        @ExceptionHandler(ServiceUnavailableException.class)
+        public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+                        ServiceUnavailableException ex, WebRequest request) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                "Service Unavailable",
+                                ex.getMessage(),
+                                request.getDescription(false));
+                return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        @ExceptionHandler(RetryableException.class)
+        public ResponseEntity<ErrorResponse> handleRetryableException(
+                        RetryableException ex, WebRequest request) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                "Gateway Timeout",
+                                ex.getMessage(),
+                                request.getDescription(false));
+                return new ResponseEntity<>(errorResponse, HttpStatus.GATEWAY_TIMEOUT);
+        }
+
+        @ExceptionHandler(PreconditionFailedException.class)
+        public ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+                        PreconditionFailedException ex, WebRequest request) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                "Precondition Failed",
+                                ex.getMessage(),
+                                request.getDescription(false));
+                return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+        }
+
+        // a concurrent request changed the same customer or address between our read and our write
+        @ExceptionHandler(OptimisticLockingFailureException.class)
+        public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+                        OptimisticLockingFailureException ex, WebRequest request) {
+                ErrorResponse errorResponse = new ErrorResponse(
+                                "Conflict",
+                                "The resource was modified concurrently, reload it and retry",
+                                request.getDescription(false));
+                return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+        }
+
         @ExceptionHandler(FeignException.class)
         public ResponseEntity<ErrorResponse> handleFeignException(FeignException ex, WebRequest request)
                         throws JsonMappingException, JsonProcessingException {
@@ -0,0 +1,9 @@
+package com.bookbrew.customer.service.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.bookbrew.customer.service.exception;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.bookbrew.customer.service.model.Address;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolationException;
+
+// GlobalExceptionHandler for the reactive stack, with WebClient errors in place of Feign ones
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+        @ExceptionHandler(ConstraintViolationException.class)
+        public ResponseEntity<ValidationError> handleValidationExceptions(ConstraintViolationException ex,
+                        ServerWebExchange exchange) {
+                ValidationError error = new ValidationError(
+                                "Validation failed for fields",
+                                ex.getConstraintViolations()
+                                                .stream()
+                                                .map(violation -> violation.getPropertyPath().toString() + ": "
+                                                                + violation.getMessage())
+                                                .collect(Collectors.toList()),
+                                description(exchange));
+
+                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+
+        @ExceptionHandler(ResourceNotFoundException.class)
+        public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
+                        ResourceNotFoundException ex, ServerWebExchange exchange) {
+                return error(HttpStatus.NOT_FOUND, "Resource Not Found", ex.getMessage(), exchange);
+        }
+
+        @ExceptionHandler(BadRequestException.class)
+        public ResponseEntity<ErrorResponse> handleBadRequestException(
+                        BadRequestException ex, ServerWebExchange exchange) {
+                return error(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), exchange);
+        }
+
+        @ExceptionHandler(Exception.class)
+        public ResponseEntity<ErrorResponse> handleGlobalException(
+                        Exception ex, ServerWebExchange exchange) {
+                return error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", ex.getMessage(), exchange);
+        }
+
+        @ExceptionHandler(DuplicateAddressException.class)
+        public ResponseEntity<ErrorResponse> handleDuplicateAddressException(
+                        DuplicateAddressException ex, ServerWebExchange exchange) {
+                return error(HttpStatus.BAD_REQUEST, "Duplicate Address", ex.getMessage(), exchange);
+        }
+
+        @ExceptionHandler(DataIntegrityViolationException.class)
+        public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(
+                        DataIntegrityViolationException ex, ServerWebExchange exchange) {
+                if (ex.getCause() instanceof org.hibernate.exception.ConstraintViolationException violation
+                                && violation.getConstraintName() != null
+                                && violation.getConstraintName().toLowerCase()
+                                                .contains(Address.FINGERPRINT_CONSTRAINT)) {
+                        return handleDuplicateAddressException(
+                                        new DuplicateAddressException("Duplicate addresses are not allowed"), exchange);
+                }
+                return handleGlobalException(ex, exchange);
+        }
+
+        @ExceptionHandler(RemoteCallTimeoutException.class)
+        public ResponseEntity<ErrorResponse> handleRemoteCallTimeoutException(
+                        RemoteCallTimeoutException ex, ServerWebExchange exchange) {
+                return error(HttpStatus.GATEWAY_TIMEOUT, "Gateway Timeout", ex.getMessage(), exchange);
+        }
+
+        @ExceptionHandler(ServiceUnavailableException.class)
+        public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+                        ServiceUnavailableException ex, ServerWebExchange exchange) {
+                return error(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), exchange);
+        }
+
+        // the JDBC scheduler queue is full: shed the request instead of letting it wait without bound
+        @ExceptionHandler(RejectedExecutionException.class)
+        public ResponseEntity<ErrorResponse> handleRejectedExecutionException(
+                        RejectedExecutionException ex, ServerWebExchange exchange) {
+                return error(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable",
+                                "Too many requests waiting for the database", exchange);
+        }
+
+        // connect failures, response timeouts and pool acquire timeouts, like Feign's RetryableException
+        @ExceptionHandler(WebClientRequestException.class)
+        public ResponseEntity<ErrorResponse> handleWebClientRequestException(
+                        WebClientRequestException ex, ServerWebExchange exchange) {
+                return error(HttpStatus.GATEWAY_TIMEOUT, "Gateway Timeout", ex.getMessage(), exchange);
+        }
+
+        @ExceptionHandler(PreconditionFailedException.class)
+        public ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+                        PreconditionFailedException ex, ServerWebExchange exchange) {
+                return error(HttpStatus.PRECONDITION_FAILED, "Precondition Failed", ex.getMessage(), exchange);
+        }
+
+        @ExceptionHandler(OptimisticLockingFailureException.class)
+        public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+                        OptimisticLockingFailureException ex, ServerWebExchange exchange) {
+                return error(HttpStatus.CONFLICT, "Conflict",
+                                "The resource was modified concurrently, reload it and retry", exchange);
+        }
+
+        @ExceptionHandler(WebClientResponseException.class)
+        public ResponseEntity<ErrorResponse> handleWebClientResponseException(WebClientResponseException ex,
+                        ServerWebExchange exchange) throws JsonMappingException, JsonProcessingException {
+                if (ex.getStatusCode().value() == 400) {
+                        return error(HttpStatus.BAD_REQUEST, "Validation Error",
+                                        new ObjectMapper().readTree(ex.getResponseBodyAsString()).get("details")
+                                                        .asText(),
+                                        exchange);
+                }
+                return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        private ResponseEntity<ErrorResponse> error(HttpStatus status, String message, String details,
+                        ServerWebExchange exchange) {
+                return new ResponseEntity<>(new ErrorResponse(message, details, description(exchange)), status);
+        }
+
+        // same shape as WebRequest.getDescription(false) on the servlet stack
+        private String description(ServerWebExchange exchange) {
+                return "uri=" + exchange.getRequest().getPath().value();
+        }
+}
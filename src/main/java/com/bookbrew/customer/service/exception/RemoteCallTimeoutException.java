@@ -0,0 +1,9 @@
+package com.bookbrew.customer.service.exception;
+
+public class RemoteCallTimeoutException extends RuntimeException {
+
+    public RemoteCallTimeoutException(String message) {
+        super(message);
+    }
+
+}
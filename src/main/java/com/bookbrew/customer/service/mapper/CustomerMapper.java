@@ -0,0 +1,160 @@
+package com.bookbrew.customer.service.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.bookbrew.customer.service.dto.AddressUpdateDTO;
+import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.dto.CustomerSearchDTO;
+import com.bookbrew.customer.service.dto.UserDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.model.UserSnapshot;
+
+@Component
+public class CustomerMapper {
+
+    public CustomerSearchDTO toCustomerSearchDTO(Customer customer, UserResponseDTO user) {
+        List<Address> addresses = customer.getAddresses();
+        List<Long> addressesId = new ArrayList<>(addresses.size());
+        for (Address address : addresses) {
+            addressesId.add(address.getId());
+        }
+
+        CustomerSearchDTO customerDTO = new CustomerSearchDTO();
+        customerDTO.setId(customer.getId());
+        customerDTO.setUserId(customer.getUserId());
+        customerDTO.setBirthDate(customer.getBirthDate());
+        customerDTO.setAddressesId(addressesId);
+        customerDTO.setName(user.getName());
+        customerDTO.setLastName(user.getLastName());
+        customerDTO.setEmail(user.getEmail());
+        customerDTO.setCpf(user.getCpf());
+        customerDTO.setPhone(user.getPhone());
+        customerDTO.setStatus(user.getStatus());
+        customerDTO.setProfile(user.getIdProfile());
+        // the hash is not part of any read: snapshots do not keep it, so a live lookup would answer differently
+        customerDTO.setCreationDate(user.getCreationDate());
+        customerDTO.setUpdateDate(user.getUpdateDate());
+        customerDTO.setLastLoginDate(user.getLastLoginDate());
+        customerDTO.setPasswordUpdateDate(user.getPasswordUpdateDate());
+
+        return customerDTO;
+    }
+
+    public CustomerDTO toCustomerDTO(Customer customer, UserResponseDTO user, Long idProfile) {
+        CustomerDTO customerDTO = new CustomerDTO();
+        customerDTO.setId(customer.getId());
+        customerDTO.setUserId(customer.getUserId());
+        customerDTO.setBirthDate(customer.getBirthDate());
+        customerDTO.setAddresses(customer.getAddresses());
+        customerDTO.setName(user.getName());
+        customerDTO.setLastName(user.getLastName());
+        customerDTO.setEmail(user.getEmail());
+        customerDTO.setCpf(user.getCpf());
+        customerDTO.setPhone(user.getPhone());
+        customerDTO.setStatus(user.getStatus());
+        customerDTO.setProfile(idProfile);
+        customerDTO.setPassword(user.getPassword());
+        customerDTO.setUpdateDate(user.getUpdateDate());
+        customerDTO.setPasswordUpdateDate(user.getPasswordUpdateDate());
+
+        return customerDTO;
+    }
+
+    public UserResponseDTO mergeUser(UserResponseDTO current, UserDTO changes) {
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(current.getId());
+        user.setName(changes.getName() != null ? changes.getName() : current.getName());
+        user.setLastName(changes.getLastName() != null ? changes.getLastName() : current.getLastName());
+        user.setEmail(changes.getEmail() != null ? changes.getEmail() : current.getEmail());
+        user.setCpf(current.getCpf());
+        user.setPhone(changes.getPhone() != null ? changes.getPhone() : current.getPhone());
+        user.setPassword(current.getPassword());
+        user.setStatus(changes.getStatus() != null ? changes.getStatus() : current.getStatus());
+        user.setIdProfile(current.getIdProfile());
+        user.setCreationDate(current.getCreationDate());
+        user.setUpdateDate(changes.getUpdateDate() != null ? changes.getUpdateDate() : current.getUpdateDate());
+        user.setLastLoginDate(current.getLastLoginDate());
+        user.setPasswordUpdateDate(changes.getPasswordUpdateDate() != null
+                ? changes.getPasswordUpdateDate()
+                : current.getPasswordUpdateDate());
+
+        return user;
+    }
+
+    public void copyUser(UserResponseDTO source, UserSnapshot target) {
+        target.setUserId(source.getId());
+        target.setName(source.getName());
+        target.setLastName(source.getLastName());
+        target.setEmail(source.getEmail());
+        target.setCpf(source.getCpf());
+        target.setPhone(source.getPhone());
+        target.setStatus(source.getStatus());
+        target.setIdProfile(source.getIdProfile());
+        target.setCreationDate(source.getCreationDate());
+        target.setUpdateDate(source.getUpdateDate());
+        target.setLastLoginDate(source.getLastLoginDate());
+        target.setPasswordUpdateDate(source.getPasswordUpdateDate());
+    }
+
+    public UserResponseDTO toUserResponseDTO(UserSnapshot snapshot) {
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(snapshot.getUserId());
+        user.setName(snapshot.getName());
+        user.setLastName(snapshot.getLastName());
+        user.setEmail(snapshot.getEmail());
+        user.setCpf(snapshot.getCpf());
+        user.setPhone(snapshot.getPhone());
+        user.setStatus(snapshot.getStatus());
+        user.setIdProfile(snapshot.getIdProfile());
+        user.setCreationDate(snapshot.getCreationDate());
+        user.setUpdateDate(snapshot.getUpdateDate());
+        user.setLastLoginDate(snapshot.getLastLoginDate());
+        user.setPasswordUpdateDate(snapshot.getPasswordUpdateDate());
+        return user;
+    }
+
+    public Address toAddress(Address source) {
+        Address address = new Address();
+        copyAddress(source, address);
+        return address;
+    }
+
+    public void copyAddress(Address source, Address target) {
+        target.setZipCode(source.getZipCode());
+        target.setStreet(source.getStreet());
+        target.setNumber(source.getNumber());
+        target.setComplement(source.getComplement());
+        target.setNeighborhood(source.getNeighborhood());
+        target.setType(source.getType());
+        target.setCity(source.getCity());
+        target.setState(source.getState());
+        target.setCountry(source.getCountry());
+    }
+
+    public void applyAddressUpdate(AddressUpdateDTO source, Address target) {
+        if (source.getZipCode() != null)
+            target.setZipCode(source.getZipCode());
+        if (source.getStreet() != null)
+            target.setStreet(source.getStreet());
+        if (source.getNumber() != null)
+            target.setNumber(source.getNumber());
+        if (source.getComplement() != null)
+            target.setComplement(source.getComplement());
+        if (source.getNeighborhood() != null)
+            target.setNeighborhood(source.getNeighborhood());
+        if (source.getType() != null)
+            target.setType(source.getType());
+        if (source.getCity() != null)
+            target.setCity(source.getCity());
+        if (source.getState() != null)
+            target.setState(source.getState());
+        if (source.getCountry() != null)
+            target.setCountry(source.getCountry());
+    }
+
+}
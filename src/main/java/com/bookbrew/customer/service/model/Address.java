@@ -1,23 +1,50 @@
 package com.bookbrew.customer.service.model;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.bookbrew.customer.service.custom.annotations.ZipCode;
+import com.bookbrew.customer.service.custom.annotations.ZipCodeValidator;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
-@Table(name = "addresses")
+@DynamicUpdate
+@Table(name = "addresses", uniqueConstraints = @UniqueConstraint(name = Address.FINGERPRINT_CONSTRAINT,
+        columnNames = { "customer_id", "fingerprint" }), indexes = {
+                // customer search filters; customer_id last so the lookups never touch the table rows
+                @Index(name = "idx_addresses_city", columnList = "city, customer_id"),
+                @Index(name = "idx_addresses_state", columnList = "state, customer_id"),
+                @Index(name = "idx_addresses_zip_code", columnList = "zipCode, customer_id")
+        })
 public class Address {
 
+    public static final String FINGERPRINT_CONSTRAINT = "uk_addresses_customer_fingerprint";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "addresses_seq")
+    @SequenceGenerator(name = "addresses_seq", sequenceName = "addresses_seq", allocationSize = 50)
     private Long id;
 
     @ZipCode
@@ -48,11 +75,64 @@ public class Address {
     @NotBlank(message = "Country is required")
     private String country;
 
+    @JsonIgnore
+    @Column(length = 64)
+    private String fingerprint;
+
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @JsonBackReference
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", insertable = false, updatable = false)
     private Customer customer;
 
+    @PrePersist
+    @PreUpdate
+    void updateFingerprint() {
+        fingerprint = computeFingerprint();
+    }
+
+    public String computeFingerprint() {
+        StringBuilder content = new StringBuilder(128);
+        for (String value : new String[] { zipCode, street, number, complement, city, state, country }) {
+            appendNormalized(content, value);
+            content.append('\u001f');
+        }
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // trimmed, lower-cased and with whitespace runs collapsed to a single space
+    private static void appendNormalized(StringBuilder content, String value) {
+        if (value == null) {
+            return;
+        }
+
+        boolean pendingSpace = false;
+        int start = content.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = content.length() > start;
+                continue;
+            }
+            if (pendingSpace) {
+                content.append(' ');
+                pendingSpace = false;
+            }
+            content.append(Character.toLowerCase(c));
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -66,7 +146,7 @@ public class Address {
     }
 
     public void setZipCode(String zipCode) {
-        this.zipCode = zipCode;
+        this.zipCode = ZipCodeValidator.normalize(zipCode);
     }
 
     public String getStreet() {
@@ -133,6 +213,10 @@ public class Address {
         this.country = country;
     }
 
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
     public Customer getCustomer() {
         return customer;
     }
@@ -141,4 +225,12 @@ public class Address {
         this.customer = customer;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
 }
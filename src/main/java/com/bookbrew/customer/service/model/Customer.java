@@ -2,6 +2,8 @@ package com.bookbrew.customer.service.model;
 
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
 import com.bookbrew.customer.service.dto.UserDTO;
 
 import jakarta.persistence.CascadeType;
@@ -11,18 +13,27 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = @Index(name = "idx_customers_user_id", columnList = "user_id"))
+@NamedEntityGraph(name = Customer.WITH_ADDRESSES, attributeNodes = @NamedAttributeNode("addresses"))
 public class Customer {
 
+    public static final String WITH_ADDRESSES = "Customer.addresses";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id")
@@ -34,8 +45,14 @@ public class Customer {
     @NotBlank(message = "Birth date is required")
     private String birthDate;
 
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
-    @JoinColumn(name = "customer_id", nullable = false)
+    // bumped on every change to the customer or its addresses, see CustomerRepository#findForVersionIncrementById
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id", nullable = false, updatable = false)
+    @BatchSize(size = 100)
     private List<Address> addresses;
 
     public Long getId() {
@@ -78,4 +95,12 @@ public class Customer {
         this.addresses = addresses;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
 }
@@ -0,0 +1,17 @@
+package com.bookbrew.customer.service.monitoring;
+
+import org.springframework.stereotype.Component;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+// runs once per Feign invocation on the calling thread, so a hedged lookup still counts as one call
+@Component
+public class RemoteCallCountingInterceptor implements RequestInterceptor {
+
+    @Override
+    public void apply(RequestTemplate template) {
+        RequestStatistics.recordRemoteCall();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.bookbrew.customer.service.monitoring;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// SQL statements and auth-service calls made on behalf of one HTTP request
+public class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> current = new ThreadLocal<>();
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+
+    public static RequestStatistics current() {
+        return current.get();
+    }
+
+    // binds the statistics to the calling thread and returns whatever was bound before
+    public static RequestStatistics bind(RequestStatistics statistics) {
+        RequestStatistics previous = current.get();
+        if (statistics != null) {
+            current.set(statistics);
+        } else {
+            current.remove();
+        }
+        return previous;
+    }
+
+    static int recordQuery() {
+        RequestStatistics statistics = current.get();
+        return statistics != null ? statistics.queries.incrementAndGet() : 0;
+    }
+
+    static void recordRemoteCall() {
+        RequestStatistics statistics = current.get();
+        if (statistics != null) {
+            statistics.remoteCalls.incrementAndGet();
+        }
+    }
+
+    public int getQueries() {
+        return queries.get();
+    }
+
+    public int getRemoteCalls() {
+        return remoteCalls.get();
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.bookbrew.customer.service.monitoring;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+@Component
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class RequestStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+
+    public static final String REMOTE_CALL_COUNT_HEADER = "X-Remote-Call-Count";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${customer.request-stats.headers:false}")
+    private boolean headersEnabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStatistics statistics = new RequestStatistics();
+        RequestStatistics previous = RequestStatistics.bind(statistics);
+        StatisticsHeaderResponse wrapped = new StatisticsHeaderResponse(response, statistics);
+        try {
+            chain.doFilter(request, headersEnabled ? wrapped : response);
+        } finally {
+            RequestStatistics.bind(previous);
+            if (headersEnabled) {
+                wrapped.writeHeaders();
+            }
+            if (request.isAsyncStarted()) {
+                // import and export only run once this returns; their body is already open, so the headers miss
+                // that work but the summaries get all of it
+                request.getAsyncContext().addListener(new RecordOnComplete(request, statistics));
+            } else {
+                record(request, statistics);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        summary("http.server.requests.queries", request, uri).record(statistics.getQueries());
+        summary("http.server.requests.remote.calls", request, uri).record(statistics.getRemoteCalls());
+    }
+
+    private DistributionSummary summary(String name, HttpServletRequest request, String uri) {
+        return DistributionSummary.builder(name)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+
+    // onComplete also follows a timeout or an error
+    private class RecordOnComplete implements AsyncListener {
+
+        private final HttpServletRequest request;
+
+        private final RequestStatistics statistics;
+
+        RecordOnComplete(HttpServletRequest request, RequestStatistics statistics) {
+            this.request = request;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, statistics);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+    }
+
+    // the counts have to be on the response before the body commits it
+    private static class StatisticsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final RequestStatistics statistics;
+
+        StatisticsHeaderResponse(HttpServletResponse response, RequestStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        void writeHeaders() {
+            if (!isCommitted()) {
+                setIntHeader(QUERY_COUNT_HEADER, statistics.getQueries());
+                setIntHeader(REMOTE_CALL_COUNT_HEADER, statistics.getRemoteCalls());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.bookbrew.customer.service.monitoring;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+// picked up by the application task executor that runs WebAsyncTask work such as import and export; the task is
+// submitted from the request thread, so its statements and calls count towards that request
+@Component
+@ConditionalOnWebApplication(type = Type.SERVLET)
+public class RequestStatisticsTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics == null) {
+            return runnable;
+        }
+
+        return () -> {
+            RequestStatistics previous = RequestStatistics.bind(statistics);
+            try {
+                runnable.run();
+            } finally {
+                RequestStatistics.bind(previous);
+            }
+        };
+    }
+
+}
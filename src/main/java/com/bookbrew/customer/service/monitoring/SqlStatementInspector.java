@@ -0,0 +1,38 @@
+package com.bookbrew.customer.service.monitoring;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+// counts every statement Hibernate prepares and logs a sample of them instead of spring.jpa.show-sql
+@Component
+public class SqlStatementInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger("com.bookbrew.customer.service.sql");
+
+    @Value("${customer.sql-log.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int statement = RequestStatistics.recordQuery();
+        if (sampleRate > 0 && log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("sampled_sql thread=\"{}\" request_statement={} sql=\"{}\"",
+                    Thread.currentThread().getName(), statement, sql.replace('"', '\''));
+        }
+        return sql;
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.bookbrew.customer.service.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.bookbrew.customer.service.model.Address;
+
+import jakarta.annotation.PostConstruct;
+
+// one-off fixes for address rows written before the current rules; each step only touches rows that still need
+// it, so later startups find nothing to do
+@Component
+public class AddressBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(AddressBackfill.class);
+
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String HYPHENATED_ZIP_CODE = "_____-___";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        normalizeZipCodes();
+        backfillFingerprints();
+    }
+
+    // zip codes are stored without the hyphen since the validator started normalizing them; older rows would not
+    // match zip code searches. Their fingerprint is recomputed from the normalized value by the next step
+    void normalizeZipCodes() {
+        int normalized = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update("update addresses set zip_code = replace(zip_code, '-', ''), "
+                    + "fingerprint = null where zip_code like ? limit ?", HYPHENATED_ZIP_CODE, CHUNK_SIZE);
+            normalized += updated;
+        } while (updated == CHUNK_SIZE);
+
+        if (normalized > 0) {
+            log.info("Removed the hyphen from the zip code of {} addresses", normalized);
+        }
+    }
+
+    // rows from before the fingerprint column have none, so the duplicate checks could not see them
+    void backfillFingerprints() {
+        long lastId = 0;
+        int filled = 0;
+        List<Long> duplicates = new ArrayList<>();
+
+        while (true) {
+            List<Object[]> fingerprints = new ArrayList<>();
+            for (Address address : jdbcTemplate.query("select id, zip_code, street, number, complement, city, state, "
+                    + "country from addresses where fingerprint is null and id > ? order by id limit ?",
+                    (rs, rowNum) -> {
+                        Address row = new Address();
+                        row.setId(rs.getLong("id"));
+                        row.setZipCode(rs.getString("zip_code"));
+                        row.setStreet(rs.getString("street"));
+                        row.setNumber(rs.getString("number"));
+                        row.setComplement(rs.getString("complement"));
+                        row.setCity(rs.getString("city"));
+                        row.setState(rs.getString("state"));
+                        row.setCountry(rs.getString("country"));
+                        return row;
+                    }, lastId, CHUNK_SIZE)) {
+                fingerprints.add(new Object[] { address.computeFingerprint(), address.getId() });
+                lastId = address.getId();
+            }
+            if (fingerprints.isEmpty()) {
+                break;
+            }
+
+            filled += fill(fingerprints, duplicates);
+            if (fingerprints.size() < CHUNK_SIZE) {
+                break;
+            }
+        }
+
+        if (filled > 0) {
+            log.info("Filled in the fingerprint of {} addresses", filled);
+        }
+        if (!duplicates.isEmpty()) {
+            // left without a fingerprint: the customer already has the same address, which needs a manual merge
+            log.warn("Addresses {} duplicate another address of their customer and keep no fingerprint", duplicates);
+        }
+    }
+
+    private int fill(List<Object[]> fingerprints, List<Long> duplicates) {
+        String sql = "update addresses set fingerprint = ? where id = ? and fingerprint is null";
+        try {
+            jdbcTemplate.batchUpdate(sql, fingerprints);
+            return fingerprints.size();
+        } catch (DataIntegrityViolationException e) {
+            // some row collides with a sibling; the batch is redone row by row to find which
+        }
+
+        int filled = 0;
+        for (Object[] fingerprint : fingerprints) {
+            try {
+                filled += jdbcTemplate.update(sql, fingerprint);
+            } catch (DataIntegrityViolationException e) {
+                duplicates.add((Long) fingerprint[1]);
+            }
+        }
+        return filled;
+    }
+
+}
@@ -1,8 +1,12 @@
 package com.bookbrew.customer.service.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.bookbrew.customer.service.model.Address;
@@ -12,4 +16,14 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
 
     List<Address> findByCustomerId(Long customerId);
 
+    Optional<Address> findByIdAndCustomerId(Long id, Long customerId);
+
+    boolean existsByCustomerIdAndFingerprint(Long customerId, String fingerprint);
+
+    boolean existsByCustomerIdAndFingerprintAndIdNot(Long customerId, String fingerprint, Long id);
+
+    @Modifying
+    @Query("delete from Address a where a.customer.id = :customerId")
+    int deleteAllByCustomerId(@Param("customerId") Long customerId);
+
 }
@@ -1,15 +1,51 @@
 package com.bookbrew.customer.service.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.bookbrew.customer.service.model.Customer;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
 
     Optional<Customer> findByUserId(Long userId);
 
-}
\ No newline at end of file
+    @EntityGraph(Customer.WITH_ADDRESSES)
+    Optional<Customer> findWithAddressesById(Long id);
+
+    // each row is {Customer, UserSnapshot or null}, repeated per address; the customer instance is the same
+    @Query("select c, u from Customer c left join fetch c.addresses "
+            + "left join UserSnapshot u on u.userId = c.userId where c.id = :id")
+    List<Object[]> findWithAddressesAndUserSnapshotById(@Param("id") Long id);
+
+    @Query("select c, u from Customer c left join fetch c.addresses "
+            + "left join UserSnapshot u on u.userId = c.userId where c.userId = :userId")
+    List<Object[]> findWithAddressesAndUserSnapshotByUserId(@Param("userId") Long userId);
+
+    Slice<Customer> findAllByOrderByIdAsc(Pageable pageable);
+
+    Slice<Customer> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // address changes go through AddressRepository, so they bump the customer version explicitly
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select c from Customer c where c.id = :id")
+    Optional<Customer> findForVersionIncrementById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from Customer c where c.id = :id")
+    int deleteCustomerById(@Param("id") Long id);
+
+}
@@ -0,0 +1,85 @@
+package com.bookbrew.customer.service.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.bookbrew.customer.service.custom.annotations.ZipCodeValidator;
+import com.bookbrew.customer.service.dto.CustomerSearchFilterDTO;
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.model.UserSnapshot;
+
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+// each filter is an IN subquery answered by one of the indexes on user_snapshots or addresses, so the database can
+// drive the search from whichever filter is most selective instead of scanning customers.
+// Terms are compared as given: whether "ana" finds "Ana" depends on the column collation. MySQL's default utf8mb4
+// collations ignore case and accents, so production searches do; the H2 test database compares exactly
+public final class CustomerSpecifications {
+
+    private CustomerSpecifications() {
+    }
+
+    // null when the filter has no criteria at all
+    public static Specification<Customer> matching(CustomerSearchFilterDTO filter) {
+        List<Specification<Customer>> specs = new ArrayList<>();
+        addUserFilter(specs, "name", filter.getName(), true);
+        addUserFilter(specs, "lastName", filter.getLastName(), true);
+        addUserFilter(specs, "email", filter.getEmail(), false);
+        addUserFilter(specs, "cpf", filter.getCpf(), false);
+        addAddressFilter(specs, "city", filter.getCity());
+        addAddressFilter(specs, "state", filter.getState());
+        addAddressFilter(specs, "zipCode", ZipCodeValidator.normalize(filter.getZipCode()));
+
+        return specs.isEmpty() ? null : Specification.allOf(specs);
+    }
+
+    public static Specification<Customer> idGreaterThan(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    private static void addUserFilter(List<Specification<Customer>> specs, String attribute, String value,
+            boolean prefix) {
+        if (isBlank(value)) {
+            return;
+        }
+
+        String term = value.trim();
+        specs.add((root, query, cb) -> {
+            Subquery<Long> users = query.subquery(Long.class);
+            Root<UserSnapshot> user = users.from(UserSnapshot.class);
+            users.select(user.get("userId"));
+            users.where(prefix
+                    ? cb.like(user.get(attribute), escapeLike(term) + "%", '\\')
+                    : cb.equal(user.get(attribute), term));
+            return root.get("userId").in(users);
+        });
+    }
+
+    private static void addAddressFilter(List<Specification<Customer>> specs, String attribute, String value) {
+        if (isBlank(value)) {
+            return;
+        }
+
+        String term = value.trim();
+        specs.add((root, query, cb) -> {
+            Subquery<Long> addresses = query.subquery(Long.class);
+            Root<Address> address = addresses.from(Address.class);
+            addresses.select(address.get("customer").get("id"));
+            addresses.where(cb.equal(address.get(attribute), term));
+            return root.get("id").in(addresses);
+        });
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+}
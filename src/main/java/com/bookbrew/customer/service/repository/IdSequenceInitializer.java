@@ -0,0 +1,64 @@
+package com.bookbrew.customer.service.repository;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+// ids came from IDENTITY columns before the pooled sequences; ddl-auto creates the sequences starting at 1, so on an
+// existing database they are moved past max(id) before the first insert
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    // allocationSize of the @SequenceGenerator on Customer and Address
+    static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // runs once the schema update is done, since this bean depends on the EntityManagerFactory
+    @PostConstruct
+    void init() {
+        align("customers_seq", "customers");
+        align("addresses_seq", "addresses");
+    }
+
+    void align(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // whichever end of its block the pooled optimizer treats the value as, every id it hands out is above maxId
+        long nextValue = maxId + ALLOCATION_SIZE + 1;
+
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        if (!dialect.getSequenceSupport().supportsSequences()) {
+            // MySQL: Hibernate emulates the sequence with a one-row table
+            int updated = jdbcTemplate.update("update " + sequence + " set next_val = ? where next_val < ?",
+                    nextValue, nextValue);
+            if (updated > 0) {
+                log.info("Moved {} to {}, past the existing {} ids", sequence, nextValue, table);
+            }
+            return;
+        }
+
+        Long current = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+        if (current != null && current < nextValue) {
+            jdbcTemplate.execute("alter sequence " + sequence + " restart with " + nextValue);
+            log.info("Moved {} to {}, past the existing {} ids", sequence, nextValue, table);
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.bookbrew.customer.service.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.bookbrew.customer.service.model.UserOutboxEvent;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface UserOutboxRepository extends JpaRepository<UserOutboxEvent, Long> {
+
+    // only the oldest pending command of each user is due, so commands for one user are applied in order;
+    // rows locked by another dispatcher are skipped (lock timeout -2 is SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from UserOutboxEvent e where e.status = :status and e.nextAttemptAt <= :now "
+            + "and not exists (select p.id from UserOutboxEvent p where p.userId = e.userId "
+            + "and p.status = :status and p.id < e.id) order by e.id")
+    List<UserOutboxEvent> findDue(@Param("status") UserOutboxEvent.Status status, @Param("now") Instant now,
+            Pageable pageable);
+
+    // all pending commands of one user, oldest first, for a direct call that has to wait behind them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<UserOutboxEvent> findByUserIdAndStatusOrderById(Long userId, UserOutboxEvent.Status status);
+
+    boolean existsByUserIdAndStatus(Long userId, UserOutboxEvent.Status status);
+
+    long countByStatus(UserOutboxEvent.Status status);
+
+    @Query("select distinct e.userId from UserOutboxEvent e where e.status = :status and e.userId in :userIds")
+    List<Long> findUserIdsWithEvents(@Param("status") UserOutboxEvent.Status status,
+            @Param("userIds") Collection<Long> userIds);
+
+}
@@ -0,0 +1,39 @@
+package com.bookbrew.customer.service.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.bookbrew.customer.service.model.UserOutboxEvent;
+import com.bookbrew.customer.service.model.UserSnapshot;
+
+@Repository
+public interface UserSnapshotRepository extends JpaRepository<UserSnapshot, Long> {
+
+    // users with outbox commands of the given status are left out, their snapshot waits for the commands
+    @Query("select u.userId from UserSnapshot u where u.refreshedAt < :before "
+            + "and not exists (select e.id from UserOutboxEvent e where e.userId = u.userId and e.status = :status) "
+            + "order by u.refreshedAt")
+    List<Long> findUserIdsRefreshedBefore(@Param("before") Instant before,
+            @Param("status") UserOutboxEvent.Status status, Pageable pageable);
+
+    // {customer id, user id} of customers after afterId, so customers whose user cannot be recorded are passed over
+    @Query("select c.id, c.userId from Customer c where c.id > :afterId and c.userId is not null "
+            + "and not exists (select u.userId from UserSnapshot u where u.userId = c.userId) "
+            + "and not exists (select e.id from UserOutboxEvent e where e.userId = c.userId and e.status = :status) "
+            + "order by c.id")
+    List<Object[]> findUserIdsWithoutSnapshot(@Param("afterId") Long afterId,
+            @Param("status") UserOutboxEvent.Status status, Pageable pageable);
+
+    @Modifying
+    @Query("delete from UserSnapshot u where u.userId in :userIds")
+    int deleteByUserIds(@Param("userIds") Collection<Long> userIds);
+
+}
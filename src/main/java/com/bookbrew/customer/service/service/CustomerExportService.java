@@ -0,0 +1,176 @@
+package com.bookbrew.customer.service.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookbrew.customer.service.dto.CustomerSearchDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.exception.BadRequestException;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class CustomerExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerExportService.class);
+
+    public static final String NDJSON = "ndjson";
+
+    public static final String CSV = "csv";
+
+    private static final String CSV_HEADER = "id,userId,name,lastName,email,cpf,phone,status,birthDate,profile,"
+            + "creationDate,updateDate,lastLoginDate,passwordUpdateDate,addressesId";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private UserLookupService userLookupService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${customer.export.chunk-size:500}")
+    private int chunkSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        chunkSize = Math.max(1, chunkSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void checkFormat(String format) {
+        if (!NDJSON.equals(format) && !CSV.equals(format)) {
+            throw new BadRequestException("Unsupported export format: " + format);
+        }
+    }
+
+    // each chunk is read by id in its own short transaction, so no connection or cursor stays open while
+    // auth-service is called and the client drains the response
+    public void export(String format, OutputStream output) {
+        checkFormat(format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        try {
+            if (CSV.equals(format)) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            Long lastId = 0L;
+            Slice<Customer> chunk;
+            do {
+                chunk = loadChunk(lastId);
+                if (chunk.hasContent()) {
+                    writeChunk(chunk.getContent(), format, writer);
+                    writer.flush();
+                    lastId = chunk.getContent().get(chunk.getNumberOfElements() - 1).getId();
+                }
+            } while (chunk.hasNext());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Slice<Customer> loadChunk(Long lastId) {
+        return readOnlyTransaction.execute(status -> {
+            Slice<Customer> customers = customerRepository.findByIdGreaterThanOrderByIdAsc(lastId,
+                    PageRequest.ofSize(chunkSize));
+            customers.forEach(customer -> Hibernate.initialize(customer.getAddresses()));
+            return customers;
+        });
+    }
+
+    private void writeChunk(List<Customer> customers, String format, Writer writer) throws IOException {
+        Map<Long, UserResponseDTO> users = userLookupService.findUsersByIds(
+                customers.stream().map(Customer::getUserId).collect(Collectors.toList()));
+
+        List<Long> skipped = new ArrayList<>();
+        for (Customer customer : customers) {
+            UserResponseDTO user = users.get(customer.getUserId());
+            if (user == null) {
+                // a customer without its user cannot be exported with the user's fields, so it is left out
+                skipped.add(customer.getId());
+                continue;
+            }
+
+            CustomerSearchDTO customerDTO = customerService.convertToCustomerSearchDTO(customer, user);
+
+            if (CSV.equals(format)) {
+                writeCsvRow(customerDTO, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(customerDTO));
+                writer.write('\n');
+            }
+        }
+
+        if (!skipped.isEmpty()) {
+            log.warn("Export skipped customers {}: their users were not found in auth-service", skipped);
+        }
+    }
+
+    private void writeCsvRow(CustomerSearchDTO customer, Writer writer) throws IOException {
+        String addressesId = customer.getAddressesId().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+
+        Object[] values = { customer.getId(), customer.getUserId(), customer.getName(), customer.getLastName(),
+                customer.getEmail(), customer.getCpf(), customer.getPhone(), customer.getStatus(),
+                customer.getBirthDate(), customer.getProfile(), customer.getCreationDate(),
+                customer.getUpdateDate(), customer.getLastLoginDate(), customer.getPasswordUpdateDate(),
+                addressesId };
+
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+}
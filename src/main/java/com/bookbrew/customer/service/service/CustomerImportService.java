@@ -0,0 +1,234 @@
+package com.bookbrew.customer.service.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookbrew.customer.service.client.UserClient;
+import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.dto.CustomerImportResultDTO;
+import com.bookbrew.customer.service.exception.RemoteCallTimeoutException;
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Service
+public class CustomerImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportService.class);
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private UserProfileRegistry userProfileRegistry;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private FanOutExecutor fanOutExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${customer.import.batch-size:100}")
+    private int batchSize;
+
+    public void importCustomers(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<ImportRecord> batch = new ArrayList<>();
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            batch.add(new ImportRecord(lineNumber, line));
+            if (batch.size() >= batchSize) {
+                importBatch(batch, output);
+                batch = new ArrayList<>();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            importBatch(batch, output);
+        }
+    }
+
+    private void importBatch(List<ImportRecord> records, OutputStream output) throws IOException {
+        List<ImportRecord> valid = new ArrayList<>(records.size());
+        for (ImportRecord record : records) {
+            if (parseAndValidate(record)) {
+                valid.add(record);
+            }
+        }
+
+        try {
+            fanOutExecutor.map(valid, this::createUser);
+        } catch (RemoteCallTimeoutException e) {
+            // the calls that did not answer in time fail their record; one that answers later is compensated
+            for (ImportRecord record : valid) {
+                synchronized (record) {
+                    if (record.userId == null && record.error == null) {
+                        record.abandoned = true;
+                        record.error = "Failed to create user: " + e.getMessage();
+                    }
+                }
+            }
+        }
+
+        List<ImportRecord> withUser = new ArrayList<>(valid.size());
+        for (ImportRecord record : valid) {
+            if (record.error == null) {
+                withUser.add(record);
+            }
+        }
+        persist(withUser);
+
+        for (ImportRecord record : records) {
+            CustomerImportResultDTO result = record.error == null
+                    ? CustomerImportResultDTO.created(record.line, record.customerId, record.userId)
+                    : CustomerImportResultDTO.failed(record.line, record.error);
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    private boolean parseAndValidate(ImportRecord record) {
+        try {
+            CustomerDTO customerDTO = objectMapper.readValue(record.json, CustomerDTO.class);
+            customerDTO.setProfile(userProfileRegistry.getCustomerProfileId());
+            customerService.validateCustomerData(customerDTO);
+            record.customer = customerDTO;
+            return true;
+        } catch (JsonProcessingException e) {
+            record.error = "Malformed record: " + e.getOriginalMessage();
+        } catch (RuntimeException e) {
+            record.error = e.getMessage();
+        }
+        return false;
+    }
+
+    private ImportRecord createUser(ImportRecord record) {
+        Long userId = null;
+        String error = null;
+        try {
+            userId = userClient.createUser(customerService.prepareUserDTO(record.customer)).getId();
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // cancelled by a fan-out that timed out, which fails the record with its own error
+                return record;
+            }
+            error = "Failed to create user: " + e.getMessage();
+        }
+
+        boolean abandoned;
+        synchronized (record) {
+            abandoned = record.abandoned;
+            if (!abandoned) {
+                record.userId = userId;
+                record.error = error;
+            }
+        }
+        if (abandoned && userId != null) {
+            // the record was already reported as failed, so its user is not saved and goes away again; the
+            // interrupt of the cancelled fan-out task would fail the outbox write
+            Thread.interrupted();
+            customerService.compensateUserCreation(userId);
+        }
+        return record;
+    }
+
+    private void persist(List<ImportRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Customer> saved = transactionTemplate.execute(status -> saveCustomers(records));
+            for (int i = 0; i < records.size(); i++) {
+                records.get(i).customerId = saved.get(i).getId();
+            }
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} customers failed, retrying one by one: {}", records.size(), e.getMessage());
+        }
+
+        for (ImportRecord record : records) {
+            try {
+                List<Customer> saved = transactionTemplate.execute(status -> saveCustomers(List.of(record)));
+                record.customerId = saved.get(0).getId();
+            } catch (RuntimeException e) {
+                record.error = "Failed to create customer: " + e.getMessage();
+                customerService.compensateUserCreation(record.userId);
+            }
+        }
+    }
+
+    private List<Customer> saveCustomers(List<ImportRecord> records) {
+        List<Customer> customers = new ArrayList<>(records.size());
+        for (ImportRecord record : records) {
+            Customer customer = new Customer();
+            customer.setUserId(record.userId);
+            customer.setBirthDate(record.customer.getBirthDate());
+
+            List<Address> addresses = new ArrayList<>(record.customer.getAddresses());
+            addresses.forEach(address -> address.setId(null));
+            customer.setAddresses(addresses);
+
+            customers.add(customer);
+        }
+
+        return customerRepository.saveAll(customers);
+    }
+
+    private static class ImportRecord {
+
+        private final long line;
+
+        private final String json;
+
+        private CustomerDTO customer;
+
+        private Long userId;
+
+        private Long customerId;
+
+        private String error;
+
+        // reported as failed after the fan-out timed out, while its user was still being created
+        private boolean abandoned;
+
+        ImportRecord(long line, String json) {
+            this.line = line;
+            this.json = json;
+        }
+
+    }
+
+}
@@ -1,30 +1,55 @@
 package com.bookbrew.customer.service.service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.bookbrew.customer.service.client.UserClient;
 import com.bookbrew.customer.service.dto.AddressUpdateDTO;
 import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.dto.CustomerPageDTO;
 import com.bookbrew.customer.service.dto.CustomerSearchDTO;
+import com.bookbrew.customer.service.dto.CustomerSearchFilterDTO;
 import com.bookbrew.customer.service.dto.UserDTO;
 import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.exception.BadRequestException;
 import com.bookbrew.customer.service.exception.DuplicateAddressException;
+import com.bookbrew.customer.service.exception.PreconditionFailedException;
 import com.bookbrew.customer.service.exception.ResourceNotFoundException;
+import com.bookbrew.customer.service.mapper.CustomerMapper;
 import com.bookbrew.customer.service.model.Address;
 import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.model.UserSnapshot;
 import com.bookbrew.customer.service.repository.AddressRepository;
 import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.repository.CustomerSpecifications;
 
 import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
@@ -32,11 +57,15 @@ import jakarta.validation.Validator;
 @Service
 public class CustomerService {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomerService.class);
+
+    private static final String DUPLICATE_ADDRESS_MESSAGE = "Duplicate addresses are not allowed";
+
     @Autowired
     private UserClient userClient;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CustomerMapper customerMapper;
 
     @Autowired
     private CustomerRepository customerRepository;
@@ -47,67 +76,401 @@ public class CustomerService {
     @Autowired
     private Validator validator;
 
-    public List<CustomerSearchDTO> findAll() {
-        List<Customer> customers = customerRepository.findAll();
-        List<CustomerSearchDTO> customerDTOs = new ArrayList<>();
+    @Autowired
+    private UserLookupService userLookupService;
+
+    @Autowired
+    private UserProfileRegistry userProfileRegistry;
+
+    @Autowired
+    private UserOutboxService userOutboxService;
+
+    @Autowired
+    private UserSnapshotService userSnapshotService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${customer.pagination.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${customer.pagination.max-size:100}")
+    private int maxPageSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private Timer searchMappingTimer;
+
+    private Timer customerMappingTimer;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        searchMappingTimer = mappingTimer("customer-search");
+        customerMappingTimer = mappingTimer("customer");
+    }
+
+    private Timer mappingTimer(String conversion) {
+        return Timer.builder("customer.mapping")
+                .description("Time spent converting entities and auth-service users into response DTOs")
+                .tag("conversion", conversion)
+                .register(meterRegistry);
+    }
 
-        if (customers.isEmpty()) {
+    public CustomerPageDTO findPage(int page, Integer size) {
+        int pageSize = resolvePageSize(size);
+        CustomerPageDTO customerPage = toCustomerPage(loadPage(page, pageSize), pageSize);
+        customerPage.setPage(page);
+        return customerPage;
+    }
+
+    // the load* methods only touch the database, so the reactive endpoints can offload them on their own
+    Slice<Customer> loadPage(int page, int pageSize) {
+        if (page < 0) {
+            throw new BadRequestException("Page must not be negative");
+        }
+
+        Slice<Customer> customers = loadSlice(
+                () -> customerRepository.findAllByOrderByIdAsc(PageRequest.of(page, pageSize)));
+
+        if (page == 0 && customers.isEmpty()) {
             throw new ResourceNotFoundException("No customers found");
         }
+        return customers;
+    }
+
+    public CustomerPageDTO findAfter(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        return toCustomerPage(loadAfter(cursor, pageSize), pageSize);
+    }
+
+    Slice<Customer> loadAfter(String cursor, int pageSize) {
+        Long lastId = decodeCursor(cursor);
+        return loadSlice(
+                () -> customerRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.ofSize(pageSize)));
+    }
+
+    public CustomerPageDTO search(CustomerSearchFilterDTO filter, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Slice<Customer> customers = loadSearch(filter, cursor, pageSize);
+
+        List<Long> userIds = customers.stream().map(Customer::getUserId).collect(Collectors.toList());
+        Map<Long, UserResponseDTO> users = userSnapshotService.findFreshUsers(userIds);
+        List<Long> missingIds = new ArrayList<>(userIds);
+        missingIds.removeAll(users.keySet());
+        if (!missingIds.isEmpty()) {
+            users.putAll(userLookupService.findUsersByIds(missingIds));
+        }
+
+        return toCustomerPage(customers, pageSize, users);
+    }
+
+    Slice<Customer> loadSearch(CustomerSearchFilterDTO filter, String cursor, int pageSize) {
+        Specification<Customer> matching = CustomerSpecifications.matching(filter);
+        if (matching == null) {
+            throw new BadRequestException("At least one search filter is required");
+        }
+
+        Specification<Customer> spec = cursor != null
+                ? matching.and(CustomerSpecifications.idGreaterThan(decodeCursor(cursor)))
+                : matching;
+
+        // one extra row tells whether there is a next page without a count query
+        return loadSlice(() -> {
+            List<Customer> found = customerRepository.findBy(spec,
+                    query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+            boolean hasNext = found.size() > pageSize;
+            return new SliceImpl<>(hasNext ? found.subList(0, pageSize) : found, PageRequest.ofSize(pageSize),
+                    hasNext);
+        });
+    }
+
+    // addresses are initialized inside a short read-only transaction, before the users are fetched remotely
+    private Slice<Customer> loadSlice(Supplier<Slice<Customer>> query) {
+        return readOnlyTransaction.execute(status -> {
+            Slice<Customer> customers = query.get();
+            customers.forEach(customer -> Hibernate.initialize(customer.getAddresses()));
+            return customers;
+        });
+    }
+
+    private CustomerPageDTO toCustomerPage(Slice<Customer> customers, int pageSize) {
+        Map<Long, UserResponseDTO> users = userLookupService.findUsersByIds(
+                customers.stream().map(Customer::getUserId).collect(Collectors.toList()));
+        return toCustomerPage(customers, pageSize, users);
+    }
+
+    CustomerPageDTO toCustomerPage(Slice<Customer> customers, int pageSize, Map<Long, UserResponseDTO> users) {
+        List<CustomerSearchDTO> customerDTOs = new ArrayList<>(customers.getNumberOfElements());
 
         for (Customer customer : customers) {
-            customerDTOs.add(convertToCustomerSearchDTO(customer));
+            customerDTOs.add(convertToCustomerSearchDTO(customer, users.get(customer.getUserId())));
+        }
+
+        CustomerPageDTO customerPage = new CustomerPageDTO();
+        customerPage.setContent(customerDTOs);
+        customerPage.setSize(pageSize);
+        customerPage.setHasNext(customers.hasNext());
+        if (customers.hasNext()) {
+            Customer last = customers.getContent().get(customers.getNumberOfElements() - 1);
+            customerPage.setNextCursor(encodeCursor(last.getId()));
         }
 
-        return customerDTOs;
+        return customerPage;
     }
 
-    public CustomerSearchDTO findById(Long id) {
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+    int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size < 1) {
+            throw new BadRequestException("Page size must be greater than zero");
+        }
 
-        return convertToCustomerSearchDTO(customer);
+        return Math.min(size, maxPageSize);
     }
 
-    @Transactional
-    public CustomerDTO createCustomer(CustomerDTO customerDTO) {
-        UserResponseDTO createdUser = null;
+    private String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor) {
         try {
-            customerDTO.setProfile((long) 4);
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
 
-            validateCustomerData(customerDTO);
+    public Versioned<CustomerSearchDTO> findById(Long id) {
+        return versionedWithSnapshot(loadWithSnapshot(id));
+    }
 
-            UserDTO userDTO = prepareUserDTO(customerDTO);
-            createdUser = userClient.createUser(userDTO);
+    // {Customer, UserSnapshot or null}
+    Object[] loadWithSnapshot(Long id) {
+        List<Object[]> rows = customerRepository.findWithAddressesAndUserSnapshotById(id);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Customer not found with id: " + id);
+        }
+        return rows.get(0);
+    }
 
-            Customer customer = new Customer();
-            customer.setUserId(createdUser.getId());
-            customer.setBirthDate(customerDTO.getBirthDate());
+    Object[] loadWithSnapshotByUserId(Long userId) {
+        List<Object[]> rows = customerRepository.findWithAddressesAndUserSnapshotByUserId(userId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Customer not found with user id: " + userId);
+        }
+        return rows.get(0);
+    }
 
-            List<Address> savedAddresses = saveAddresses(customerDTO.getAddresses());
-            customer.setAddresses(savedAddresses);
+    private Versioned<CustomerSearchDTO> versionedWithSnapshot(Object[] row) {
+        Customer customer = (Customer) row[0];
+        UserResponseDTO user;
+        try {
+            user = currentUser(customer, (UserSnapshot) row[1]);
+        } catch (FeignException e) {
+            throw new ResourceNotFoundException("Error fetching user with id: " + customer.getUserId());
+        }
 
-            Customer savedCustomer = customerRepository.save(customer);
-            return convertToCustomerDTO(savedCustomer, userDTO.getProfile().getId());
+        return versioned(customer, user);
+    }
+
+    // the joined snapshot answers on its own unless it is missing or older than the staleness bound; reads and
+    // If-Match checks both take the user from here so they compute the same ETag
+    private UserResponseDTO currentUser(Customer customer, UserSnapshot snapshot) {
+        UserResponseDTO user = userSnapshotService.toFreshUser(snapshot);
+        if (user != null) {
+            return user;
+        }
+
+        user = userLookupService.getUser(customer.getUserId());
+        if (user == null) {
+            throw new ResourceNotFoundException("User not found with id: " + customer.getUserId());
+        }
+        recordSnapshot(user);
+        return user;
+    }
+
+    Versioned<CustomerSearchDTO> versioned(Customer customer, UserResponseDTO user) {
+        return new Versioned<>(EntityTags.customer(customer, user), () -> convertToCustomerSearchDTO(customer, user));
+    }
+
+    void recordSnapshot(UserResponseDTO user) {
+        try {
+            userSnapshotService.record(user);
+        } catch (RuntimeException e) {
+            log.debug("Failed to record snapshot of user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    public CustomerDTO createCustomer(CustomerDTO customerDTO) {
+        UserResponseDTO createdUser = null;
+        try {
+            UserDTO userDTO = prepareNewUser(customerDTO);
+            createdUser = userClient.createUser(userDTO);
+
+            return saveNewCustomer(customerDTO, userDTO, createdUser);
 
         } catch (Exception e) {
-            if (createdUser != null) {
-                try {
-                    userClient.deleteUser(createdUser.getId());
-                } catch (Exception compensationError) {
-                    throw new RuntimeException("Failed to rollback user creation: " + e.getMessage());
-                }
+            if (createdUser != null && !compensateUserCreation(createdUser.getId())) {
+                throw new RuntimeException("Failed to rollback user creation: " + e.getMessage());
             }
             throw new RuntimeException("Failed to create customer: " + e.getMessage());
         }
     }
 
-    @Transactional
-    public CustomerSearchDTO update(Long id, CustomerDTO customerUpdateDTO) {
-        Customer customer = customerRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
+    UserDTO prepareNewUser(CustomerDTO customerDTO) {
+        customerDTO.setProfile(userProfileRegistry.getCustomerProfileId());
+
+        validateCustomerData(customerDTO);
+
+        return prepareUserDTO(customerDTO);
+    }
+
+    CustomerDTO saveNewCustomer(CustomerDTO customerDTO, UserDTO userDTO, UserResponseDTO createdUser) {
+        Customer customer = new Customer();
+        customer.setUserId(createdUser.getId());
+        customer.setBirthDate(customerDTO.getBirthDate());
+
+        customer.setAddresses(new ArrayList<>(customerDTO.getAddresses()));
+
+        Customer savedCustomer = transactionTemplate.execute(status -> {
+            Customer saved = customerRepository.save(customer);
+            userSnapshotService.recordCreated(createdUser);
+            return saved;
+        });
+        Timer.Sample mapping = Timer.start(meterRegistry);
+        CustomerDTO createdCustomer = customerMapper.toCustomerDTO(savedCustomer, createdUser,
+                userDTO.getProfile().getId());
+        mapping.stop(customerMappingTimer);
+        return createdCustomer;
+    }
+
+    // the delete is queued in the outbox so it is retried until auth-service accepts it
+    boolean compensateUserCreation(Long userId) {
+        try {
+            userOutboxService.enqueueDelete(userId);
+            return true;
+        } catch (RuntimeException outboxError) {
+            log.warn("Failed to queue rollback of user {}, deleting it directly: {}", userId,
+                    outboxError.getMessage());
+        }
+
+        try {
+            userClient.deleteUser(userId);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to rollback user creation for user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+
+    // ifMatch is the ETag the client read; the customer version is checked again when the change is written
+    public Versioned<CustomerSearchDTO> update(Long id, CustomerDTO customerUpdateDTO, String ifMatch) {
+        Object[] row = loadWithSnapshot(id);
+        Customer customer = (Customer) row[0];
+        UserResponseDTO currentUserDTO = currentUser(customer, (UserSnapshot) row[1]);
+
+        UserDTO updateUserDTO = prepareUpdate(customer, currentUserDTO, customerUpdateDTO, ifMatch);
+        if (updateUserDTO == null) {
+            return saveUnchangedUser(customer, currentUserDTO);
+        }
+
+        // user changes are sent to auth-service before anything is written here, so a change it rejects fails the
+        // request and leaves the cache and the snapshot alone; the user's queued commands go first so they cannot
+        // overwrite this change later
+        userOutboxService.deliverPending(customer.getUserId());
+        UserDTO updatedUser = userClient.updateUser(customer.getUserId(), updateUserDTO);
+
+        return saveUpdate(customer, applyUserUpdate(currentUserDTO, updateUserDTO, updatedUser));
+    }
 
-        UserResponseDTO currentUserDTO = userClient.getUserById(customer.getUserId());
+    // checks If-Match and applies the local changes to the detached customer, so they are rejected before
+    // auth-service is touched; returns the user change to send, or null when the user is unchanged
+    UserDTO prepareUpdate(Customer customer, UserResponseDTO currentUserDTO, CustomerDTO customerUpdateDTO,
+            String ifMatch) {
+        if (!EntityTags.matches(ifMatch, EntityTags.customer(customer, currentUserDTO))) {
+            throw new PreconditionFailedException("Customer " + customer.getId() + " was modified since it was read");
+        }
+
+        if (customerUpdateDTO.getBirthDate() != null) {
+            customer.setBirthDate(customerUpdateDTO.getBirthDate());
+        }
+
+        if (customerUpdateDTO.getAddresses() != null) {
+            reconcileAddresses(customer, customerUpdateDTO.getAddresses());
+        }
+
+        return prepareUserUpdate(currentUserDTO, customerUpdateDTO);
+    }
+
+    // updatedUser is what auth-service answered, if anything
+    UserResponseDTO applyUserUpdate(UserResponseDTO currentUserDTO, UserDTO updateUserDTO, UserDTO updatedUser) {
+        UserResponseDTO userDTO = customerMapper.mergeUser(currentUserDTO,
+                updatedUser != null ? updatedUser : updateUserDTO);
+        // only the auth-service knows the new hash, never echo a plain-text password back
+        if (updateUserDTO.getPassword() != null) {
+            userDTO.setPassword(updatedUser != null ? updatedUser.getPassword() : null);
+        }
+        userLookupService.replace(userDTO);
+        return userDTO;
+    }
+
+    Versioned<CustomerSearchDTO> saveUnchangedUser(Customer customer, UserResponseDTO userDTO) {
+        return versioned(customerRepository.save(customer), userDTO);
+    }
+
+    Versioned<CustomerSearchDTO> saveUpdate(Customer customer, UserResponseDTO userDTO) {
+        Customer savedCustomer = transactionTemplate.execute(status -> {
+            Customer saved = customerRepository.save(customer);
+            userSnapshotService.record(userDTO);
+            return saved;
+        });
+        return versioned(savedCustomer, userDTO);
+    }
+
+    private void reconcileAddresses(Customer customer, List<Address> addresses) {
+        Map<Long, Address> existingAddresses = new HashMap<>();
+        for (Address address : customer.getAddresses()) {
+            existingAddresses.put(address.getId(), address);
+        }
+
+        List<Address> newAddresses = new ArrayList<>();
+        for (Address addressDTO : addresses) {
+            if (addressDTO.getId() == null) {
+                newAddresses.add(customerMapper.toAddress(addressDTO));
+                continue;
+            }
+
+            Address existingAddress = existingAddresses.get(addressDTO.getId());
+            if (existingAddress == null) {
+                throw new ResourceNotFoundException("Address not found with id: " + addressDTO.getId());
+            }
+            customerMapper.copyAddress(addressDTO, existingAddress);
+        }
+
+        customer.getAddresses().addAll(newAddresses);
+        checkDuplicateAddresses(customer.getAddresses());
+    }
+
+    private UserDTO prepareUserUpdate(UserResponseDTO currentUserDTO, CustomerDTO customerUpdateDTO) {
+        boolean changed = customerUpdateDTO.getPassword() != null
+                || isChanged(customerUpdateDTO.getName(), currentUserDTO.getName())
+                || isChanged(customerUpdateDTO.getLastName(), currentUserDTO.getLastName())
+                || isChanged(customerUpdateDTO.getEmail(), currentUserDTO.getEmail())
+                || isChanged(customerUpdateDTO.getPhone(), currentUserDTO.getPhone())
+                || isChanged(customerUpdateDTO.getStatus(), currentUserDTO.getStatus());
+        if (!changed) {
+            return null;
+        }
 
         UserDTO updateUserDTO = new UserDTO();
         updateUserDTO.setId(currentUserDTO.getId());
@@ -125,214 +488,114 @@ public class CustomerService {
         if (customerUpdateDTO.getStatus() != null)
             updateUserDTO.setStatus(customerUpdateDTO.getStatus());
         updateUserDTO.setCpf(currentUserDTO.getCpf());
-        updateUserDTO.setProfile(userClient.getUserProfileById((long) 4));
-
-        userClient.updateUser(customer.getUserId(), updateUserDTO);
-
-        if (customerUpdateDTO.getBirthDate() != null) {
-            customer.setBirthDate(customerUpdateDTO.getBirthDate());
-        }
-
-        if (customerUpdateDTO.getAddresses() != null) {
-            List<Address> updatedAddresses = new ArrayList<>();
-
-            List<Long> updatedAddressIds = customerUpdateDTO.getAddresses().stream()
-                    .filter(addr -> addr.getId() != null)
-                    .map(Address::getId)
-                    .collect(Collectors.toList());
-
-            customer.getAddresses().stream()
-                    .filter(addr -> !updatedAddressIds.contains(addr.getId()))
-                    .forEach(updatedAddresses::add);
-
-            for (Address addressDTO : customerUpdateDTO.getAddresses()) {
-                if (addressDTO.getId() != null) {
-                    Address existingAddress = addressRepository.findById(addressDTO.getId())
-                            .orElseThrow(() -> new ResourceNotFoundException(
-                                    "Address not found with id: " + addressDTO.getId()));
-
-                    existingAddress.setZipCode(addressDTO.getZipCode());
-                    existingAddress.setStreet(addressDTO.getStreet());
-                    existingAddress.setNumber(addressDTO.getNumber());
-                    existingAddress.setNeighborhood(addressDTO.getNeighborhood());
-                    existingAddress.setType(addressDTO.getType());
-                    existingAddress.setCity(addressDTO.getCity());
-                    existingAddress.setState(addressDTO.getState());
-                    existingAddress.setCountry(addressDTO.getCountry());
-                    existingAddress.setComplement(addressDTO.getComplement());
-
-                    updatedAddresses.add(existingAddress);
-                } else {
-                    Address newAddress = new Address();
-                    newAddress.setZipCode(addressDTO.getZipCode());
-                    newAddress.setStreet(addressDTO.getStreet());
-                    newAddress.setNumber(addressDTO.getNumber());
-                    newAddress.setNeighborhood(addressDTO.getNeighborhood());
-                    newAddress.setType(addressDTO.getType());
-                    newAddress.setCity(addressDTO.getCity());
-                    newAddress.setState(addressDTO.getState());
-                    newAddress.setCountry(addressDTO.getCountry());
-                    newAddress.setComplement(addressDTO.getComplement());
-
-                    updatedAddresses.add(newAddress);
-                }
-            }
+        updateUserDTO.setProfile(userProfileRegistry.getCustomerProfile());
 
-            customer.getAddresses().clear();
-            customer.getAddresses().addAll(updatedAddresses);
-        }
+        return updateUserDTO;
+    }
 
-        Customer savedCustomer = customerRepository.save(customer);
-        return findById(savedCustomer.getId());
+    private boolean isChanged(Object requested, Object current) {
+        return requested != null && !requested.equals(current);
     }
 
-    @Transactional
     public void deleteCustomer(Long customerId) {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
 
-        UserResponseDTO currentUserDTO = userClient.getUserById(customer.getUserId());
-
-        customerRepository.deleteById(customerId);
-
-        userClient.deleteUser(currentUserDTO.getId());
+        transactionTemplate.executeWithoutResult(status -> {
+            addressRepository.deleteAllByCustomerId(customerId);
+            customerRepository.deleteCustomerById(customerId);
+            userOutboxService.enqueueDelete(customer.getUserId());
+            userSnapshotService.remove(customer.getUserId());
+        });
+        userLookupService.evict(customer.getUserId());
     }
 
     @Transactional(readOnly = true)
-    public List<Address> getAddresses(Long customerId) {
-        Customer customer = customerRepository.findById(customerId)
+    public Versioned<List<Address>> getAddresses(Long customerId) {
+        Customer customer = customerRepository.findWithAddressesById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
 
-        return customer.getAddresses();
+        return new Versioned<>(EntityTags.addresses(customer), customer::getAddresses);
     }
 
     @Transactional(readOnly = true)
-    public Address getAddressById(Long customerId, Long addressId) {
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
-
-        return customer.getAddresses().stream()
-                .filter(address -> address.getId().equals(addressId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Address not found with id: " + addressId));
+    public Versioned<Address> getAddressById(Long customerId, Long addressId) {
+        Address address = addressRepository.findByIdAndCustomerId(addressId, customerId)
+                .orElseThrow(() -> {
+                    if (!customerRepository.existsById(customerId)) {
+                        return new ResourceNotFoundException("Customer not found with id: " + customerId);
+                    }
+                    return new ResourceNotFoundException("Address not found with id: " + addressId);
+                });
+
+        return new Versioned<>(EntityTags.address(address), () -> address);
     }
 
     @Transactional
     public Address addAddress(Long customerId, Address address) {
-        Customer customer = customerRepository.findById(customerId)
+        // the unidirectional collection is initialized by the add anyway, so it comes with the customer
+        Customer customer = customerRepository.findWithAddressesById(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
 
+        // checked against the indexed fingerprints, see AddressBackfill for rows written before they existed
+        if (addressRepository.existsByCustomerIdAndFingerprint(customerId, address.computeFingerprint())) {
+            throw new DuplicateAddressException(DUPLICATE_ADDRESS_MESSAGE);
+        }
+
         customer.getAddresses().add(address);
         Customer updatedCustomer = customerRepository.save(customer);
         return updatedCustomer.getAddresses().get(updatedCustomer.getAddresses().size() - 1);
     }
 
     @Transactional
-    public Address updateAddress(Long customerId, Long addressId, AddressUpdateDTO newAddress) {
+    public Address updateAddress(Long customerId, Long addressId, AddressUpdateDTO newAddress, String ifMatch) {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address not found with id: " + addressId));
 
-        if (newAddress.getZipCode() != null)
-            address.setZipCode(newAddress.getZipCode());
-        if (newAddress.getStreet() != null)
-            address.setStreet(newAddress.getStreet());
-        if (newAddress.getNumber() != null)
-            address.setNumber(newAddress.getNumber());
-        if (newAddress.getNeighborhood() != null)
-            address.setNeighborhood(newAddress.getNeighborhood());
-        if (newAddress.getType() != null)
-            address.setType(newAddress.getType());
-        if (newAddress.getCity() != null)
-            address.setCity(newAddress.getCity());
-        if (newAddress.getState() != null)
-            address.setState(newAddress.getState());
-        if (newAddress.getCountry() != null)
-            address.setCountry(newAddress.getCountry());
+        if (!EntityTags.matches(ifMatch, EntityTags.address(address))) {
+            throw new PreconditionFailedException("Address " + addressId + " was modified since it was read");
+        }
+
+        customerMapper.applyAddressUpdate(newAddress, address);
+
+        String fingerprint = address.computeFingerprint();
+        if (!fingerprint.equals(address.getFingerprint()) && addressRepository
+                .existsByCustomerIdAndFingerprintAndIdNot(address.getCustomer().getId(), fingerprint, addressId)) {
+            throw new DuplicateAddressException(DUPLICATE_ADDRESS_MESSAGE);
+        }
 
         addressRepository.save(address);
+        customerRepository.findForVersionIncrementById(address.getCustomer().getId());
 
         return address;
     }
 
     @Transactional
     public void deleteCustomerAddress(Long customerId, Long addressId) {
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + customerId));
-
-        Address addressToDelete = addressRepository.findById(addressId)
-                .orElseThrow(() -> new ResourceNotFoundException("Address not found with id: " + addressId));
-
-        if (!customer.getAddresses().contains(addressToDelete)) {
-            throw new ResourceNotFoundException("Address does not belong to this customer");
-        }
-
-        customer.getAddresses().remove(addressToDelete);
-
-        customerRepository.save(customer);
+        Address addressToDelete = addressRepository.findByIdAndCustomerId(addressId, customerId)
+                .orElseThrow(() -> {
+                    if (!customerRepository.existsById(customerId)) {
+                        return new ResourceNotFoundException("Customer not found with id: " + customerId);
+                    }
+                    if (!addressRepository.existsById(addressId)) {
+                        return new ResourceNotFoundException("Address not found with id: " + addressId);
+                    }
+                    return new ResourceNotFoundException("Address does not belong to this customer");
+                });
+
+        addressRepository.delete(addressToDelete);
+        customerRepository.findForVersionIncrementById(customerId);
     }
 
-    private CustomerSearchDTO convertToCustomerSearchDTO(Customer customer) {
-        try {
-            CustomerSearchDTO customerDTO = modelMapper.map(customer, CustomerSearchDTO.class);
-            UserResponseDTO userDTO = userClient.getUserById(customer.getUserId());
-            List<Address> addresses = customer.getAddresses();
-            List<Long> addressesId = new ArrayList<>();
-            for (Address address : addresses) {
-                addressesId.add(address.getId());
-            }
-
-            if (userDTO == null) {
-                throw new ResourceNotFoundException("User not found with id: " + customer.getUserId());
-            }
-
-            customerDTO.setName(userDTO.getName());
-            customerDTO.setLastName(userDTO.getLastName());
-            customerDTO.setEmail(userDTO.getEmail());
-            customerDTO.setCpf(userDTO.getCpf());
-            customerDTO.setPhone(userDTO.getPhone());
-            customerDTO.setStatus(userDTO.getStatus());
-            customerDTO.setAddressesId(addressesId);
-            customerDTO.setProfile(userDTO.getIdProfile());
-            customerDTO.setPassword(userDTO.getPassword());
-            customerDTO.setCreationDate(userDTO.getCreationDate());
-            customerDTO.setUpdateDate(userDTO.getUpdateDate());
-            customerDTO.setLastLoginDate(userDTO.getLastLoginDate());
-            customerDTO.setPasswordUpdateDate(userDTO.getPasswordUpdateDate());
-
-            return customerDTO;
-        } catch (FeignException e) {
-            throw new ResourceNotFoundException("Error fetching user with id: " + customer.getUserId());
+    CustomerSearchDTO convertToCustomerSearchDTO(Customer customer, UserResponseDTO userDTO) {
+        if (userDTO == null) {
+            throw new ResourceNotFoundException("User not found with id: " + customer.getUserId());
         }
-    }
 
-    private CustomerDTO convertToCustomerDTO(Customer customer, Long idProfile) {
-        try {
-            CustomerDTO customerDTO = modelMapper.map(customer, CustomerDTO.class);
-            UserResponseDTO userDTO = userClient.getUserById(customer.getUserId());
-
-            if (userDTO == null) {
-                throw new ResourceNotFoundException("User not found with id: " + customer.getUserId());
-            }
-
-            customerDTO.setName(userDTO.getName());
-            customerDTO.setLastName(userDTO.getLastName());
-            customerDTO.setEmail(userDTO.getEmail());
-            customerDTO.setCpf(userDTO.getCpf());
-            customerDTO.setPhone(userDTO.getPhone());
-            customerDTO.setStatus(userDTO.getStatus());
-            customerDTO.setProfile(idProfile);
-            customerDTO.setPassword(userDTO.getPassword());
-            customerDTO.setUpdateDate(userDTO.getUpdateDate());
-            customerDTO.setPasswordUpdateDate(userDTO.getPasswordUpdateDate());
-            customerDTO.setAddresses(customer.getAddresses());
-
-            return customerDTO;
-        } catch (FeignException e) {
-            throw new ResourceNotFoundException("Error fetching user with id: " + customer.getUserId());
-        }
+        return searchMappingTimer.record(() -> customerMapper.toCustomerSearchDTO(customer, userDTO));
     }
 
-    private void validateCustomerData(CustomerDTO customerDTO) {
+    void validateCustomerData(CustomerDTO customerDTO) {
         Set<ConstraintViolation<CustomerDTO>> violations = validator.validate(customerDTO);
         if (!violations.isEmpty()) {
             throw new ConstraintViolationException(violations);
@@ -341,15 +604,13 @@ public class CustomerService {
         validateAddresses(customerDTO.getAddresses());
     }
 
-    private List<Address> saveAddresses(List<Address> addresses) {
-        Set<Address> uniqueAddresses = new HashSet<>(addresses);
-        if (uniqueAddresses.size() < addresses.size()) {
-            throw new DuplicateAddressException("Duplicate addresses are not allowed");
+    private void checkDuplicateAddresses(List<Address> addresses) {
+        Set<String> fingerprints = new HashSet<>(addresses.size() * 2);
+        for (Address address : addresses) {
+            if (!fingerprints.add(address.computeFingerprint())) {
+                throw new DuplicateAddressException(DUPLICATE_ADDRESS_MESSAGE);
+            }
         }
-
-        return addresses.stream()
-                .map(addressRepository::save)
-                .collect(Collectors.toList());
     }
 
     private void validateAddresses(List<Address> addresses) {
@@ -360,13 +621,10 @@ public class CustomerService {
             }
         }
 
-        Set<Address> uniqueAddresses = new HashSet<>(addresses);
-        if (uniqueAddresses.size() < addresses.size()) {
-            throw new DuplicateAddressException("Duplicate addresses are not allowed");
-        }
+        checkDuplicateAddresses(addresses);
     }
 
-    private UserDTO prepareUserDTO(CustomerDTO customerDTO) {
+    UserDTO prepareUserDTO(CustomerDTO customerDTO) {
         UserDTO userDTO = new UserDTO();
         userDTO.setName(customerDTO.getName());
         userDTO.setLastName(customerDTO.getLastName());
@@ -375,16 +633,13 @@ public class CustomerService {
         userDTO.setPhone(customerDTO.getPhone());
         userDTO.setPassword(customerDTO.getPassword());
         userDTO.setStatus(customerDTO.getStatus());
-        userDTO.setProfile(userClient.getUserProfileById((long) 4));
+        userDTO.setProfile(userProfileRegistry.getCustomerProfile());
 
         return userDTO;
     }
 
-    public CustomerSearchDTO findCustomerByUserId(Long userId) {
-        Customer customer = customerRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with user id: " + userId));
-
-        return convertToCustomerSearchDTO(customer);
+    public Versioned<CustomerSearchDTO> findCustomerByUserId(Long userId) {
+        return versionedWithSnapshot(loadWithSnapshotByUserId(userId));
     }
 
 }
@@ -0,0 +1,68 @@
+package com.bookbrew.customer.service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+
+// strong ETags built from row versions, so a conditional request is answered without building the response
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String customer(Customer customer, UserResponseDTO user) {
+        return quote("c" + customer.getId() + "-" + customer.getVersion() + "-" + userVersion(user));
+    }
+
+    // the address list is covered by the customer version, which every address change bumps
+    public static String addresses(Customer customer) {
+        return quote("c" + customer.getId() + "-" + customer.getVersion());
+    }
+
+    public static String address(Address address) {
+        return quote("a" + address.getId() + "-" + address.getVersion());
+    }
+
+    // strong comparison as required for If-Match; a missing header means the client did not ask for a check
+    public static boolean matches(String ifMatch, String tag) {
+        if (ifMatch == null) {
+            return true;
+        }
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // updates still queued in the outbox do not change the auth-service update date, so every user field the
+    // response carries is digested; a strong tag has to change whenever the body does, the last login date included
+    private static String userVersion(UserResponseDTO user) {
+        StringBuilder content = new StringBuilder(256);
+        for (Object value : new Object[] { user.getId(), user.getName(), user.getLastName(), user.getEmail(),
+                user.getCpf(), user.getPhone(), user.getStatus(), user.getIdProfile(), user.getCreationDate(),
+                user.getUpdateDate(), user.getLastLoginDate(), user.getPasswordUpdateDate() }) {
+            content.append(value).append('\u001f');
+        }
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+
+}
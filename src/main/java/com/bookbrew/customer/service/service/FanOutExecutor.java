@@ -0,0 +1,128 @@
+package com.bookbrew.customer.service.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.bookbrew.customer.service.exception.RemoteCallTimeoutException;
+import com.bookbrew.customer.service.monitoring.RequestStatistics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class FanOutExecutor {
+
+    private static final ThreadLocal<Boolean> insideFanOut = ThreadLocal.withInitial(() -> false);
+
+    @Value("${customer.fan-out.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${customer.fan-out.call-timeout:PT5S}")
+    private Duration callTimeout;
+
+    private ExecutorService executor;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        maxConcurrency = Math.max(1, maxConcurrency);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        permits = new Semaphore(maxConcurrency);
+    }
+
+    public <T, R> List<R> map(List<T> inputs, Function<? super T, ? extends R> task) {
+        if (inputs.size() <= 1) {
+            List<R> results = new ArrayList<>(inputs.size());
+            for (T input : inputs) {
+                results.add(task.apply(input));
+            }
+            return results;
+        }
+
+        // a nested fan-out runs on the same executor; its parent gives its permit back while it only waits, so
+        // the children can never starve on permits held by the tasks waiting for them
+        boolean nested = insideFanOut.get();
+        if (nested) {
+            permits.release();
+        }
+        try {
+            return fanOut(inputs, task);
+        } finally {
+            if (nested) {
+                permits.acquireUninterruptibly();
+            }
+        }
+    }
+
+    private <T, R> List<R> fanOut(List<T> inputs, Function<? super T, ? extends R> task) {
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+        RequestStatistics statistics = RequestStatistics.current();
+        Object[] results = new Object[inputs.size()];
+        List<Future<Integer>> futures = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            int index = i;
+            futures.add(completionService.submit(() -> {
+                permits.acquire();
+                insideFanOut.set(true);
+                RequestStatistics.bind(statistics);
+                try {
+                    results[index] = task.apply(inputs.get(index));
+                    return index;
+                } finally {
+                    RequestStatistics.bind(null);
+                    insideFanOut.remove();
+                    permits.release();
+                }
+            }));
+        }
+
+        // every wave of maxConcurrency calls gets one call timeout
+        long waves = (inputs.size() + maxConcurrency - 1) / maxConcurrency;
+        long deadline = System.nanoTime() + callTimeout.toNanos() * waves;
+        try {
+            for (int completed = 0; completed < inputs.size(); completed++) {
+                Future<Integer> done = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new RemoteCallTimeoutException("Remote calls did not complete within " + callTimeout
+                            + " per call");
+                }
+                done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for remote calls", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Remote call failed", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        @SuppressWarnings("unchecked")
+        List<R> ordered = (List<R>) Arrays.asList(results);
+        return ordered;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
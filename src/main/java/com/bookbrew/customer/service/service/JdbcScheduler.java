@@ -0,0 +1,65 @@
+package com.bookbrew.customer.service.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// JPA stays blocking under the reactive stack; its calls run here, never on the event loop, on as many threads as
+// there are pooled connections so extra requests queue in memory instead of parking threads on the pool
+@Component
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class JdbcScheduler {
+
+    @Value("${customer.reactive.jdbc-threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int threads;
+
+    @Value("${customer.reactive.jdbc-queue-size:10000}")
+    private int queueSize;
+
+    @Value("${customer.reactive.batch-threads:2}")
+    private int batchThreads;
+
+    @Value("${customer.reactive.batch-queue-size:10}")
+    private int batchQueueSize;
+
+    private Scheduler scheduler;
+
+    private Scheduler batchScheduler;
+
+    @PostConstruct
+    void init() {
+        scheduler = Schedulers.newBoundedElastic(Math.max(1, threads), Math.max(1, queueSize), "customer-jdbc");
+        batchScheduler = Schedulers.newBoundedElastic(Math.max(1, batchThreads), Math.max(1, batchQueueSize),
+                "customer-batch");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+        batchScheduler.dispose();
+    }
+
+    public <T> Mono<T> call(Callable<T> task) {
+        return Mono.fromCallable(task).subscribeOn(scheduler);
+    }
+
+    public Mono<Void> run(Runnable task) {
+        return Mono.<Void>fromRunnable(task).subscribeOn(scheduler);
+    }
+
+    // exports and imports hold their thread for the whole job, so they get threads of their own and queue there
+    public Executor batchExecutor() {
+        return batchScheduler::schedule;
+    }
+
+}
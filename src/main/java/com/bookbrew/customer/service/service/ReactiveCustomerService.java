@@ -0,0 +1,302 @@
+package com.bookbrew.customer.service.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.bookbrew.customer.service.client.ReactiveUserClient;
+import com.bookbrew.customer.service.dto.AddressUpdateDTO;
+import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.dto.CustomerPageDTO;
+import com.bookbrew.customer.service.dto.CustomerSearchDTO;
+import com.bookbrew.customer.service.dto.CustomerSearchFilterDTO;
+import com.bookbrew.customer.service.dto.UserDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.exception.ResourceNotFoundException;
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.model.UserOutboxEvent;
+import com.bookbrew.customer.service.model.UserSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// CustomerService for the reactive stack: database work goes through JdbcScheduler and auth-service calls through
+// ReactiveUserClient, so no request holds a thread while it waits on auth-service
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveCustomerService {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private UserSnapshotService userSnapshotService;
+
+    @Autowired
+    private CustomerExportService customerExportService;
+
+    @Autowired
+    private CustomerImportService customerImportService;
+
+    @Autowired
+    private UserOutboxService userOutboxService;
+
+    @Autowired
+    private ReactiveUserClient userClient;
+
+    @Autowired
+    private JdbcScheduler jdbcScheduler;
+
+    @Value("${auth.service.batch-size:100}")
+    private int batchSize;
+
+    public Mono<CustomerPageDTO> findPage(int page, Integer size) {
+        return Mono.fromCallable(() -> customerService.resolvePageSize(size))
+                .flatMap(pageSize -> jdbcScheduler.call(() -> customerService.loadPage(page, pageSize))
+                        .flatMap(customers -> toCustomerPage(customers, pageSize)))
+                .doOnNext(customerPage -> customerPage.setPage(page));
+    }
+
+    public Mono<CustomerPageDTO> findAfter(String cursor, Integer size) {
+        return Mono.fromCallable(() -> customerService.resolvePageSize(size))
+                .flatMap(pageSize -> jdbcScheduler.call(() -> customerService.loadAfter(cursor, pageSize))
+                        .flatMap(customers -> toCustomerPage(customers, pageSize)));
+    }
+
+    public Mono<CustomerPageDTO> search(CustomerSearchFilterDTO filter, String cursor, Integer size) {
+        return Mono.fromCallable(() -> customerService.resolvePageSize(size))
+                .flatMap(pageSize -> jdbcScheduler.call(() -> customerService.loadSearch(filter, cursor, pageSize))
+                        .flatMap(customers -> toCustomerPage(customers, pageSize)));
+    }
+
+    private Mono<CustomerPageDTO> toCustomerPage(Slice<Customer> customers, int pageSize) {
+        List<Long> userIds = customers.stream()
+                .map(Customer::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        return jdbcScheduler.call(() -> userSnapshotService.findFreshUsers(userIds))
+                .flatMap(users -> fetchMissingUsers(userIds, users))
+                .map(users -> customerService.toCustomerPage(customers, pageSize, users));
+    }
+
+    private Mono<Map<Long, UserResponseDTO>> fetchMissingUsers(List<Long> userIds, Map<Long, UserResponseDTO> users) {
+        List<Long> missingIds = userIds.stream().filter(id -> !users.containsKey(id)).collect(Collectors.toList());
+        if (missingIds.isEmpty()) {
+            return Mono.just(users);
+        }
+
+        return Flux.fromIterable(missingIds)
+                .buffer(Math.max(1, batchSize))
+                .flatMap(this::fetchChunk)
+                .doOnNext(user -> users.put(user.getId(), user))
+                .then(Mono.just(users));
+    }
+
+    // auth-service without the batch endpoint answers 400 (batch is not a user id), 404 or 405, then the chunk is
+    // looked up user by user
+    private Flux<UserResponseDTO> fetchChunk(List<Long> ids) {
+        return userClient.getUsersByIds(ids)
+                .onErrorResume(e -> e instanceof WebClientResponseException.BadRequest
+                        || e instanceof WebClientResponseException.NotFound
+                        || e instanceof WebClientResponseException.MethodNotAllowed,
+                        e -> Flux.fromIterable(ids).flatMap(userClient::getUserById));
+    }
+
+    public Mono<Versioned<CustomerSearchDTO>> findById(Long id) {
+        return jdbcScheduler.call(() -> customerService.loadWithSnapshot(id)).flatMap(this::versionedWithSnapshot);
+    }
+
+    public Mono<Versioned<CustomerSearchDTO>> findCustomerByUserId(Long userId) {
+        return jdbcScheduler.call(() -> customerService.loadWithSnapshotByUserId(userId))
+                .flatMap(this::versionedWithSnapshot);
+    }
+
+    private Mono<Versioned<CustomerSearchDTO>> versionedWithSnapshot(Object[] row) {
+        Customer customer = (Customer) row[0];
+        return currentUser(row)
+                // timeouts and refused connections are left to the 504 handler
+                .onErrorMap(WebClientResponseException.class,
+                        e -> new ResourceNotFoundException("Error fetching user with id: " + customer.getUserId()))
+                .map(user -> customerService.versioned(customer, user));
+    }
+
+    // CustomerService.currentUser with the lookup over WebClient; reads and If-Match checks both take the user
+    // from here so they compute the same ETag
+    private Mono<UserResponseDTO> currentUser(Object[] row) {
+        Customer customer = (Customer) row[0];
+        UserResponseDTO snapshotUser = userSnapshotService.toFreshUser((UserSnapshot) row[1]);
+        if (snapshotUser != null) {
+            return Mono.just(snapshotUser);
+        }
+
+        return userClient.getUserById(customer.getUserId())
+                .switchIfEmpty(Mono.error(
+                        () -> new ResourceNotFoundException("User not found with id: " + customer.getUserId())))
+                .flatMap(user -> jdbcScheduler.run(() -> customerService.recordSnapshot(user)).thenReturn(user));
+    }
+
+    public Mono<CustomerDTO> createCustomer(CustomerDTO customerDTO) {
+        return jdbcScheduler.call(() -> customerService.prepareNewUser(customerDTO))
+                .flatMap(userDTO -> userClient.createUser(userDTO)
+                        .onErrorMap(this::creationFailed)
+                        .flatMap(createdUser -> jdbcScheduler
+                                .call(() -> customerService.saveNewCustomer(customerDTO, userDTO, createdUser))
+                                .onErrorResume(e -> compensate(createdUser.getId(), e))))
+                .onErrorMap(e -> !(e instanceof CustomerCreationException), this::creationFailed);
+    }
+
+    private Mono<CustomerDTO> compensate(Long userId, Throwable error) {
+        return jdbcScheduler.call(() -> customerService.compensateUserCreation(userId))
+                .flatMap(compensated -> Mono.error(compensated
+                        ? creationFailed(error)
+                        : new CustomerCreationException("Failed to rollback user creation: " + error.getMessage())));
+    }
+
+    private Throwable creationFailed(Throwable error) {
+        return error instanceof CustomerCreationException
+                ? error
+                : new CustomerCreationException("Failed to create customer: " + error.getMessage());
+    }
+
+    // same message and status as the RuntimeException the servlet path throws, marked so it is wrapped only once
+    private static class CustomerCreationException extends RuntimeException {
+
+        CustomerCreationException(String message) {
+            super(message);
+        }
+
+    }
+
+    // same steps as CustomerService.update, with every auth-service call made over WebClient. Preparing the
+    // change can load the profile list through Feign and touches the customer's addresses, so it runs on the JDBC
+    // threads too
+    public Mono<Versioned<CustomerSearchDTO>> update(Long id, CustomerDTO customerUpdateDTO, String ifMatch) {
+        return jdbcScheduler.call(() -> customerService.loadWithSnapshot(id))
+                .flatMap(row -> currentUser(row).flatMap(currentUserDTO -> {
+                    Customer customer = (Customer) row[0];
+                    return jdbcScheduler.call(() -> Optional.ofNullable(customerService.prepareUpdate(customer,
+                            currentUserDTO, customerUpdateDTO, ifMatch)))
+                            .flatMap(updateUserDTO -> updateUserDTO.isEmpty()
+                                    ? jdbcScheduler.call(() -> customerService.saveUnchangedUser(customer,
+                                            currentUserDTO))
+                                    : updateUser(customer, currentUserDTO, updateUserDTO.get()));
+                }));
+    }
+
+    private Mono<Versioned<CustomerSearchDTO>> updateUser(Customer customer, UserResponseDTO currentUserDTO,
+            UserDTO updateUserDTO) {
+        return deliverPending(customer.getUserId())
+                .then(userClient.updateUser(customer.getUserId(), updateUserDTO)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty()))
+                .map(updatedUser -> customerService.applyUserUpdate(currentUserDTO, updateUserDTO,
+                        updatedUser.orElse(null)))
+                .flatMap(userDTO -> jdbcScheduler.call(() -> customerService.saveUpdate(customer, userDTO)));
+    }
+
+    // UserOutboxService.deliverPending with the claimed commands sent over WebClient, one after the other
+    private Mono<Void> deliverPending(Long userId) {
+        return jdbcScheduler.call(() -> userOutboxService.claimPending(userId))
+                .flatMap(events -> {
+                    if (events.isEmpty()) {
+                        return Mono.empty();
+                    }
+
+                    Map<Long, UserOutboxService.Delivery> outcomes = new HashMap<>();
+                    return Flux.fromIterable(events)
+                            .concatMap(event -> send(event)
+                                    .doOnNext(delivery -> outcomes.put(event.getId(), delivery)))
+                            .takeUntil(delivery -> delivery.error() != null)
+                            .then(jdbcScheduler.run(() -> userOutboxService.finishDelivery(userId, events, outcomes)));
+                });
+    }
+
+    private Mono<UserOutboxService.Delivery> send(UserOutboxEvent event) {
+        Mono<?> call = switch (event.getType()) {
+            case UPDATE_USER -> Mono.fromCallable(() -> userOutboxService.readUpdate(event))
+                    .flatMap(userDTO -> userClient.updateUser(event.getUserId(), userDTO));
+            case DELETE_USER -> userClient.deleteUser(event.getUserId());
+        };
+        return call.then(Mono.just(UserOutboxService.Delivery.DELIVERED))
+                .onErrorResume(e -> Mono.just(failed(e)));
+    }
+
+    private UserOutboxService.Delivery failed(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            return UserOutboxService.Delivery.rejected(e.getStatusCode().value(), e.getMessage());
+        }
+        if (error instanceof JsonProcessingException) {
+            return new UserOutboxService.Delivery(error.getMessage(), false);
+        }
+        return new UserOutboxService.Delivery(error.getClass().getSimpleName() + ": " + error.getMessage(), true);
+    }
+
+    public Mono<Void> deleteCustomer(Long customerId) {
+        return jdbcScheduler.run(() -> customerService.deleteCustomer(customerId));
+    }
+
+    public Mono<Versioned<List<Address>>> getAddresses(Long customerId) {
+        return jdbcScheduler.call(() -> customerService.getAddresses(customerId));
+    }
+
+    public Mono<Versioned<Address>> getAddressById(Long customerId, Long addressId) {
+        return jdbcScheduler.call(() -> customerService.getAddressById(customerId, addressId));
+    }
+
+    public Mono<Address> addAddress(Long customerId, Address address) {
+        return jdbcScheduler.call(() -> customerService.addAddress(customerId, address));
+    }
+
+    public Mono<Address> updateAddress(Long customerId, Long addressId, AddressUpdateDTO newAddress,
+            String ifMatch) {
+        return jdbcScheduler.call(() -> customerService.updateAddress(customerId, addressId, newAddress, ifMatch));
+    }
+
+    public Mono<Void> deleteCustomerAddress(Long customerId, Long addressId) {
+        return jdbcScheduler.run(() -> customerService.deleteCustomerAddress(customerId, addressId));
+    }
+
+    // export and import are batch jobs written against streams, and import creates users through Feign; they run end
+    // to end on the batch threads, so a running job never takes a thread from the requests
+    public Flux<DataBuffer> export(String format, DataBufferFactory bufferFactory) {
+        customerExportService.checkFormat(format);
+        return Flux.from(DataBufferUtils.outputStreamPublisher(
+                output -> customerExportService.export(format, output), bufferFactory, jdbcScheduler.batchExecutor()));
+    }
+
+    public Flux<DataBuffer> importCustomers(Flux<DataBuffer> body, DataBufferFactory bufferFactory) {
+        return Flux.from(DataBufferUtils.outputStreamPublisher(output -> importCustomers(body, output),
+                bufferFactory, jdbcScheduler.batchExecutor()));
+    }
+
+    private void importCustomers(Flux<DataBuffer> body, OutputStream output) {
+        try (InputStream input = DataBufferUtils.subscriberInputStream(body, 16)) {
+            customerImportService.importCustomers(input, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+package com.bookbrew.customer.service.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.bookbrew.customer.service.client.UserClient;
+import com.bookbrew.customer.service.dto.UserCacheStatsDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class UserLookupService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserLookupService.class);
+
+    private static final String REQUEST_MEMO = UserLookupService.class.getName() + ".users";
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private FanOutExecutor fanOutExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.service.batch-size:100}")
+    private int batchSize;
+
+    @Value("${auth.service.bulk-retry-interval:PT5M}")
+    private Duration bulkRetryInterval;
+
+    @Value("${auth.service.user-cache.ttl:PT5M}")
+    private Duration userCacheTtl;
+
+    @Value("${auth.service.user-cache.max-size:10000}")
+    private long userCacheMaxSize;
+
+    private Cache<Long, UserResponseDTO> userCache;
+
+    private volatile long bulkDisabledUntil;
+
+    private volatile boolean bulkEndpointConfirmed;
+
+    @PostConstruct
+    void init() {
+        batchSize = Math.max(1, batchSize);
+        userCache = Caffeine.newBuilder()
+                .maximumSize(userCacheMaxSize)
+                .expireAfterWrite(userCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userCache, "users");
+    }
+
+    public UserResponseDTO getUser(Long userId) {
+        Map<Long, UserResponseDTO> memo = requestMemo();
+        if (memo == null) {
+            return userCache.get(userId, userClient::getUserById);
+        }
+
+        UserResponseDTO user = memo.get(userId);
+        if (user == null) {
+            user = userCache.get(userId, userClient::getUserById);
+            if (user != null) {
+                memo.put(userId, user);
+            }
+        }
+        return user;
+    }
+
+    public void evict(Long userId) {
+        userCache.invalidate(userId);
+
+        Map<Long, UserResponseDTO> memo = requestMemo();
+        if (memo != null) {
+            memo.remove(userId);
+        }
+    }
+
+    // drops the shared entry but keeps the fresh copy for the rest of the current request
+    public void replace(UserResponseDTO user) {
+        userCache.invalidate(user.getId());
+
+        Map<Long, UserResponseDTO> memo = requestMemo();
+        if (memo != null) {
+            memo.put(user.getId(), user);
+        }
+    }
+
+    public UserCacheStatsDTO getCacheStats() {
+        CacheStats stats = userCache.stats();
+
+        UserCacheStatsDTO statsDTO = new UserCacheStatsDTO();
+        statsDTO.setSize(userCache.estimatedSize());
+        statsDTO.setMaxSize(userCacheMaxSize);
+        statsDTO.setHits(stats.hitCount());
+        statsDTO.setMisses(stats.missCount());
+        statsDTO.setEvictions(stats.evictionCount());
+        statsDTO.setHitRate(stats.hitRate());
+        return statsDTO;
+    }
+
+    public Map<Long, UserResponseDTO> findUsersByIds(Collection<Long> userIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(userIds);
+        distinctIds.removeIf(Objects::isNull);
+
+        Map<Long, UserResponseDTO> memo = requestMemo();
+        Map<Long, UserResponseDTO> users = new HashMap<>();
+        if (memo != null) {
+            for (Long id : distinctIds) {
+                UserResponseDTO user = memo.get(id);
+                if (user != null) {
+                    users.put(id, user);
+                }
+            }
+        }
+
+        List<Long> missingIds = new ArrayList<>(distinctIds);
+        missingIds.removeAll(users.keySet());
+        users.putAll(userCache.getAllPresent(missingIds));
+        missingIds.removeAll(users.keySet());
+
+        users.putAll(fetchAndCache(missingIds));
+
+        if (memo != null) {
+            memo.putAll(users);
+        }
+        return users;
+    }
+
+    // skips the cache but refreshes it, for callers that need what auth-service holds right now
+    public Map<Long, UserResponseDTO> fetchUsersByIds(Collection<Long> userIds) {
+        Set<Long> distinctIds = new LinkedHashSet<>(userIds);
+        distinctIds.removeIf(Objects::isNull);
+        return fetchAndCache(new ArrayList<>(distinctIds));
+    }
+
+    private Map<Long, UserResponseDTO> fetchAndCache(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            chunks.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+
+        List<UserResponseDTO> fetched = new ArrayList<>(ids.size());
+        List<Long> singleIds = new ArrayList<>();
+        if (!chunks.isEmpty() && !bulkEndpointAvailable()) {
+            singleIds.addAll(ids);
+            chunks = List.of();
+        } else if (chunks.size() > 1 && !bulkEndpointConfirmed) {
+            // probe with one chunk before sending the others, so an auth-service without the endpoint sees one miss
+            List<UserResponseDTO> probed = fetchChunk(chunks.get(0));
+            if (probed != null) {
+                fetched.addAll(probed);
+                chunks = chunks.subList(1, chunks.size());
+            } else {
+                singleIds.addAll(ids);
+                chunks = List.of();
+            }
+        }
+
+        List<List<UserResponseDTO>> chunkResults = fanOutExecutor.map(chunks, this::fetchChunk);
+        for (int i = 0; i < chunks.size(); i++) {
+            if (chunkResults.get(i) != null) {
+                fetched.addAll(chunkResults.get(i));
+            } else {
+                singleIds.addAll(chunks.get(i));
+            }
+        }
+        // one flat fan-out for every chunk the bulk endpoint did not answer, so they share the wave deadline
+        fetched.addAll(fanOutExecutor.map(singleIds, this::fetchSingle));
+
+        Map<Long, UserResponseDTO> users = new HashMap<>();
+        for (UserResponseDTO user : fetched) {
+            if (user != null && user.getId() != null) {
+                users.put(user.getId(), user);
+                userCache.put(user.getId(), user);
+            }
+        }
+        return users;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, UserResponseDTO> requestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Map<Long, UserResponseDTO> memo = (Map<Long, UserResponseDTO>) attributes.getAttribute(REQUEST_MEMO,
+                RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new ConcurrentHashMap<>();
+            attributes.setAttribute(REQUEST_MEMO, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return memo;
+    }
+
+    private boolean bulkEndpointAvailable() {
+        return System.currentTimeMillis() >= bulkDisabledUntil;
+    }
+
+    // null when the bulk endpoint is unavailable, the caller then looks the chunk up user by user
+    private List<UserResponseDTO> fetchChunk(List<Long> ids) {
+        if (!bulkEndpointAvailable()) {
+            return null;
+        }
+        try {
+            List<UserResponseDTO> users = userClient.getUsersByIds(ids);
+            bulkEndpointConfirmed = true;
+            return users;
+        } catch (FeignException.BadRequest | FeignException.NotFound | FeignException.MethodNotAllowed e) {
+            // auth-service without the batch endpoint routes /batch to /{userId} and answers 400 for the
+            // type mismatch, or 404/405: stop probing it for a while
+            bulkDisabledUntil = System.currentTimeMillis() + bulkRetryInterval.toMillis();
+            bulkEndpointConfirmed = false;
+            log.warn("Bulk user endpoint unavailable ({}), falling back to single lookups for {}",
+                    e.status(), bulkRetryInterval);
+            return null;
+        }
+    }
+
+    private UserResponseDTO fetchSingle(Long id) {
+        try {
+            return userClient.getUserById(id);
+        } catch (FeignException.NotFound e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,263 @@
+package com.bookbrew.customer.service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookbrew.customer.service.client.UserClient;
+import com.bookbrew.customer.service.dto.UserDTO;
+import com.bookbrew.customer.service.exception.RemoteCallTimeoutException;
+import com.bookbrew.customer.service.exception.ServiceUnavailableException;
+import com.bookbrew.customer.service.model.UserOutboxEvent;
+import com.bookbrew.customer.service.repository.UserOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.FeignException;
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class UserOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserOutboxService.class);
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private UserLookupService userLookupService;
+
+    @Autowired
+    private FanOutExecutor fanOutExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${customer.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${customer.outbox.lease:PT1M}")
+    private Duration lease;
+
+    @Value("${customer.outbox.initial-backoff:PT1S}")
+    private Duration initialBackoff;
+
+    @Value("${customer.outbox.max-backoff:PT10M}")
+    private Duration maxBackoff;
+
+    @Value("${customer.outbox.max-attempts:20}")
+    private int maxAttempts;
+
+    @PostConstruct
+    void init() {
+        batchSize = Math.max(1, batchSize);
+    }
+
+    // only deletes are queued: user changes are sent synchronously, and UPDATE_USER rows queued before that
+    // are still delivered
+    public void enqueueDelete(Long userId) {
+        Instant now = Instant.now();
+
+        UserOutboxEvent event = new UserOutboxEvent();
+        event.setType(UserOutboxEvent.Type.DELETE_USER);
+        event.setUserId(userId);
+        event.setCreatedAt(now);
+        event.setNextAttemptAt(now);
+        userOutboxRepository.save(event);
+    }
+
+    @Scheduled(fixedDelayString = "${customer.outbox.poll-interval:PT1S}",
+            initialDelayString = "${customer.outbox.poll-interval:PT1S}")
+    public void dispatchPending() {
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    private int dispatchBatch() {
+        List<UserOutboxEvent> events = transactionTemplate.execute(status -> claimDue());
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<Delivery> deliveries;
+        try {
+            deliveries = fanOutExecutor.map(events, this::send);
+        } catch (RemoteCallTimeoutException e) {
+            // leases run out and the whole batch is picked up again
+            log.warn("Dispatching {} outbox events timed out: {}", events.size(), e.getMessage());
+            return 0;
+        }
+
+        Map<Long, Delivery> outcomes = new HashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            outcomes.put(events.get(i).getId(), deliveries.get(i));
+        }
+        transactionTemplate.executeWithoutResult(status -> recordOutcomes(outcomes));
+
+        return events.size();
+    }
+
+    // sends the user's queued commands before a direct call to auth-service, so they cannot overwrite it later.
+    // A command that is leased by the dispatcher or backing off is not due yet, and neither is anything after it
+    public void deliverPending(Long userId) {
+        List<UserOutboxEvent> events = claimPending(userId);
+        Map<Long, Delivery> outcomes = new HashMap<>();
+        for (UserOutboxEvent event : events) {
+            Delivery delivery = send(event);
+            outcomes.put(event.getId(), delivery);
+            if (delivery.error() != null) {
+                break;
+            }
+        }
+        finishDelivery(userId, events, outcomes);
+    }
+
+    // the two halves of deliverPending, for callers that send the claimed commands themselves
+    List<UserOutboxEvent> claimPending(Long userId) {
+        if (!userOutboxRepository.existsByUserIdAndStatus(userId, UserOutboxEvent.Status.PENDING)) {
+            return List.of();
+        }
+
+        List<UserOutboxEvent> events = transactionTemplate.execute(status -> claimDue(userId));
+        if (events.isEmpty()) {
+            throw stillPending(userId);
+        }
+        return events;
+    }
+
+    void finishDelivery(Long userId, List<UserOutboxEvent> events, Map<Long, Delivery> outcomes) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            recordOutcomes(outcomes);
+            // claimed but never sent after an earlier failure: released for the dispatcher
+            for (UserOutboxEvent event : userOutboxRepository.findAllById(events.stream()
+                    .map(UserOutboxEvent::getId).filter(id -> !outcomes.containsKey(id)).toList())) {
+                event.setNextAttemptAt(Instant.now());
+            }
+        });
+
+        if (userOutboxRepository.existsByUserIdAndStatus(userId, UserOutboxEvent.Status.PENDING)) {
+            throw stillPending(userId);
+        }
+    }
+
+    private ServiceUnavailableException stillPending(Long userId) {
+        return new ServiceUnavailableException(
+                "Earlier changes to user " + userId + " are still being delivered, retry later");
+    }
+
+    UserDTO readUpdate(UserOutboxEvent event) throws JsonProcessingException {
+        return objectMapper.readValue(event.getPayload(), UserDTO.class);
+    }
+
+    private List<UserOutboxEvent> claimDue(Long userId) {
+        Instant now = Instant.now();
+        List<UserOutboxEvent> events = new ArrayList<>();
+        for (UserOutboxEvent event : userOutboxRepository.findByUserIdAndStatusOrderById(userId,
+                UserOutboxEvent.Status.PENDING)) {
+            if (event.getNextAttemptAt().isAfter(now)) {
+                break;
+            }
+            event.setNextAttemptAt(now.plus(lease));
+            events.add(event);
+        }
+        return events;
+    }
+
+    private List<UserOutboxEvent> claimDue() {
+        Instant now = Instant.now();
+        List<UserOutboxEvent> events = userOutboxRepository.findDue(UserOutboxEvent.Status.PENDING, now,
+                PageRequest.ofSize(batchSize));
+        for (UserOutboxEvent event : events) {
+            event.setNextAttemptAt(now.plus(lease));
+        }
+        return events;
+    }
+
+    private Delivery send(UserOutboxEvent event) {
+        try {
+            switch (event.getType()) {
+                case UPDATE_USER -> userClient.updateUser(event.getUserId(), readUpdate(event));
+                case DELETE_USER -> userClient.deleteUser(event.getUserId());
+            }
+            return Delivery.DELIVERED;
+        } catch (FeignException e) {
+            return Delivery.rejected(e.status(), e.getMessage());
+        } catch (JsonProcessingException e) {
+            return new Delivery(e.getMessage(), false);
+        } catch (RuntimeException e) {
+            return new Delivery(e.getClass().getSimpleName() + ": " + e.getMessage(), true);
+        }
+    }
+
+    private void recordOutcomes(Map<Long, Delivery> outcomes) {
+        Instant now = Instant.now();
+        for (UserOutboxEvent event : userOutboxRepository.findAllById(outcomes.keySet())) {
+            Delivery delivery = outcomes.get(event.getId());
+            String error = delivery.error();
+            if (error == null) {
+                userOutboxRepository.delete(event);
+                userLookupService.evict(event.getUserId());
+                continue;
+            }
+
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (!delivery.retryable() || event.getAttempts() >= maxAttempts) {
+                event.setStatus(UserOutboxEvent.Status.FAILED);
+                log.error("Giving up on {} for user {} after {} attempts: {}", event.getType(), event.getUserId(),
+                        event.getAttempts(), error);
+            } else {
+                event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+                log.warn("{} for user {} failed (attempt {}), retrying: {}", event.getType(), event.getUserId(),
+                        event.getAttempts(), error);
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long millis = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        millis = Math.min(millis, maxBackoff.toMillis());
+        // jitter keeps retries of a failed batch from arriving together
+        return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis / 5 + 1));
+    }
+
+    record Delivery(String error, boolean retryable) {
+
+        static final Delivery DELIVERED = new Delivery(null, false);
+
+        static Delivery rejected(int status, String error) {
+            // the user is gone: a delete already happened and an update no longer matters
+            if (status == 404) {
+                return DELIVERED;
+            }
+            return new Delivery(error, status < 400 || status >= 500 || status == 408 || status == 429);
+        }
+
+    }
+
+}
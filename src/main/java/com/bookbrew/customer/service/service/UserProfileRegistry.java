@@ -0,0 +1,69 @@
+package com.bookbrew.customer.service.service;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.bookbrew.customer.service.client.UserClient;
+import com.bookbrew.customer.service.dto.UserProfileDTO;
+
+@Service
+public class UserProfileRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(UserProfileRegistry.class);
+
+    @Autowired
+    private UserClient userClient;
+
+    @Value("${auth.service.customer-profile-id:4}")
+    private Long customerProfileId;
+
+    private final Map<Long, UserProfileDTO> profiles = new ConcurrentHashMap<>();
+
+    public Long getCustomerProfileId() {
+        return customerProfileId;
+    }
+
+    public UserProfileDTO getCustomerProfile() {
+        return getProfile(customerProfileId);
+    }
+
+    public UserProfileDTO getProfile(Long profileId) {
+        return profiles.computeIfAbsent(profileId, userClient::getUserProfileById);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadProfiles() {
+        refreshProfiles();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.service.profile-refresh-interval:PT10M}",
+            initialDelayString = "${auth.service.profile-refresh-interval:PT10M}")
+    public void refreshProfiles() {
+        Set<Long> profileIds = new HashSet<>(profiles.keySet());
+        profileIds.add(customerProfileId);
+
+        for (Long profileId : profileIds) {
+            try {
+                UserProfileDTO profile = userClient.getUserProfileById(profileId);
+                if (profile != null) {
+                    profiles.put(profileId, profile);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to refresh user profile {}, keeping last known value: {}", profileId,
+                        e.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.bookbrew.customer.service.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.mapper.CustomerMapper;
+import com.bookbrew.customer.service.model.UserOutboxEvent;
+import com.bookbrew.customer.service.model.UserSnapshot;
+import com.bookbrew.customer.service.repository.UserOutboxRepository;
+import com.bookbrew.customer.service.repository.UserSnapshotRepository;
+
+import jakarta.annotation.PostConstruct;
+
+@Service
+public class UserSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSnapshotService.class);
+
+    @Autowired
+    private UserSnapshotRepository userSnapshotRepository;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @Autowired
+    private UserLookupService userLookupService;
+
+    @Autowired
+    private CustomerMapper customerMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${customer.user-projection.max-staleness:PT15M}")
+    private Duration maxStaleness;
+
+    @Value("${customer.user-projection.refresh-after:PT5M}")
+    private Duration refreshAfter;
+
+    @Value("${customer.user-projection.batch-size:100}")
+    private int batchSize;
+
+    @Value("${customer.user-projection.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    private final Backfill backfill = new Backfill();
+
+    @PostConstruct
+    void init() {
+        batchSize = Math.max(1, batchSize);
+        maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+    }
+
+    // null when there is no snapshot or it is older than the staleness bound
+    public UserResponseDTO toFreshUser(UserSnapshot snapshot) {
+        if (snapshot == null || snapshot.getRefreshedAt().isBefore(Instant.now().minus(maxStaleness))) {
+            return null;
+        }
+        return customerMapper.toUserResponseDTO(snapshot);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, UserResponseDTO> findFreshUsers(Collection<Long> userIds) {
+        Map<Long, UserResponseDTO> users = new HashMap<>();
+        for (UserSnapshot snapshot : userSnapshotRepository.findAllById(userIds)) {
+            UserResponseDTO user = toFreshUser(snapshot);
+            if (user != null) {
+                users.put(user.getId(), user);
+            }
+        }
+        return users;
+    }
+
+    @Transactional
+    public void record(UserResponseDTO user) {
+        record(List.of(user));
+    }
+
+    // a user auth-service has just created cannot have a snapshot yet, so the lookup is skipped
+    @Transactional
+    public void recordCreated(UserResponseDTO user) {
+        UserSnapshot snapshot = new UserSnapshot();
+        customerMapper.copyUser(user, snapshot);
+        snapshot.setRefreshedAt(Instant.now());
+        userSnapshotRepository.save(snapshot);
+    }
+
+    @Transactional
+    public void record(Collection<UserResponseDTO> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+
+        Map<Long, UserSnapshot> existing = userSnapshotRepository
+                .findAllById(users.stream().map(UserResponseDTO::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(UserSnapshot::getUserId, Function.identity()));
+
+        Instant now = Instant.now();
+        List<UserSnapshot> snapshots = new ArrayList<>(users.size());
+        for (UserResponseDTO user : users) {
+            UserSnapshot snapshot = existing.computeIfAbsent(user.getId(), id -> new UserSnapshot());
+            customerMapper.copyUser(user, snapshot);
+            snapshot.setRefreshedAt(now);
+            snapshots.add(snapshot);
+        }
+        userSnapshotRepository.saveAll(snapshots);
+    }
+
+    @Transactional
+    public void remove(Long userId) {
+        userSnapshotRepository.deleteByUserIds(List.of(userId));
+    }
+
+    // backfills customers without a snapshot first, then re-reads the oldest snapshots from auth-service. A run
+    // handles at most maxBatchesPerRun batches and a large backlog is worked off over several runs
+    @Scheduled(fixedDelayString = "${customer.user-projection.refresh-interval:PT1M}",
+            initialDelayString = "${customer.user-projection.refresh-interval:PT1M}")
+    public void refreshStale() {
+        if (backfill.done) {
+            backfill.lastCustomerId = 0;
+            backfill.done = false;
+        }
+        int batches = 0;
+        int selected;
+        do {
+            selected = refreshBatch();
+        } while (selected == batchSize && ++batches < maxBatchesPerRun);
+    }
+
+    // the backfill walks the customers by id, so one whose user auth-service no longer knows is passed over
+    // instead of being selected again. A run ends at the first batch short of batchSize; a run cut off by
+    // maxBatchesPerRun leaves the position for the next one
+    private static class Backfill {
+
+        private long lastCustomerId;
+
+        private boolean done;
+
+    }
+
+    // returns the number of users selected
+    private int refreshBatch() {
+        Set<Long> userIds = transactionTemplate.execute(status -> {
+            Set<Long> ids = new LinkedHashSet<>();
+            if (!backfill.done) {
+                for (Object[] row : userSnapshotRepository.findUserIdsWithoutSnapshot(backfill.lastCustomerId,
+                        UserOutboxEvent.Status.PENDING, PageRequest.ofSize(batchSize))) {
+                    backfill.lastCustomerId = (Long) row[0];
+                    ids.add((Long) row[1]);
+                }
+                backfill.done = ids.size() < batchSize;
+            }
+            if (ids.size() < batchSize) {
+                ids.addAll(userSnapshotRepository.findUserIdsRefreshedBefore(Instant.now().minus(refreshAfter),
+                        UserOutboxEvent.Status.PENDING, PageRequest.ofSize(batchSize - ids.size())));
+            }
+            return ids;
+        });
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, UserResponseDTO> users;
+        try {
+            users = userLookupService.fetchUsersByIds(userIds);
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh {} user snapshots, retrying next round: {}", userIds.size(), e.getMessage());
+            return 0;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> pending = new HashSet<>(
+                    userOutboxRepository.findUserIdsWithEvents(UserOutboxEvent.Status.PENDING, userIds));
+            List<UserResponseDTO> found = new ArrayList<>();
+            List<Long> missing = new ArrayList<>();
+            for (Long userId : userIds) {
+                if (pending.contains(userId)) {
+                    continue;
+                }
+                UserResponseDTO user = users.get(userId);
+                if (user != null) {
+                    found.add(user);
+                } else {
+                    missing.add(userId);
+                }
+            }
+            record(found);
+            if (!missing.isEmpty()) {
+                userSnapshotRepository.deleteByUserIds(missing);
+            }
+        });
+        return userIds.size();
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.bookbrew.customer.service.service;
+
+import java.util.function.Supplier;
+
+// a response body that is only built once the caller knows the client does not already hold this version
+public class Versioned<T> {
+
+    private final String eTag;
+
+    private final Supplier<T> body;
+
+    public Versioned(String eTag, Supplier<T> body) {
+        this.eTag = eTag;
+        this.body = body;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public T getBody() {
+        return body.get();
+    }
+
+}
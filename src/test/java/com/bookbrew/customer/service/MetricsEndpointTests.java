@@ -0,0 +1,73 @@
+package com.bookbrew.customer.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @Test
+    void hotPathsAreExposedInPrometheusFormat() throws Exception {
+        Customer customer = new Customer();
+        customer.setUserId(System.nanoTime());
+        customer.setBirthDate("1990-01-01");
+        customer = customerRepository.save(customer);
+        authService.addUser(customer.getUserId());
+
+        mockMvc.perform(get("/api/customers/" + customer.getId())).andExpect(status().isOk());
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        for (String metric : List.of(
+                "http_server_requests_seconds_bucket{",
+                "uri=\"/api/customers/{id}\"",
+                "http_client_requests_seconds_bucket{",
+                "operation=\"UserClient#getUserById(Long)\",outcome=\"SUCCESS\"",
+                "spring_data_repository_invocations_seconds_bucket{",
+                "customer_mapping_seconds_bucket{",
+                "hikaricp_connections_active{",
+                "cache_size{",
+                "resilience4j_circuitbreaker_state{")) {
+            assertTrue(scrape.contains(metric), metric);
+        }
+    }
+
+}
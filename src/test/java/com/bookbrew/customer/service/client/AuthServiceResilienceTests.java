@@ -0,0 +1,172 @@
+package com.bookbrew.customer.service.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.bookbrew.customer.service.dto.AuthServiceOperationStatsDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.exception.ServiceUnavailableException;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+import feign.FeignException;
+import feign.RetryableException;
+
+@SpringBootTest(properties = {
+        "auth.service.circuit-breaker.sliding-window-size=4",
+        "auth.service.circuit-breaker.minimum-calls=4",
+        "auth.service.circuit-breaker.open-duration=PT1M",
+        "auth.service.bulkhead.max-concurrent-calls=2",
+        "auth.service.hedging.enabled=true",
+        "auth.service.hedging.min-samples=10",
+        "spring.cloud.openfeign.client.config.auth-service.read-timeout=1000"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AuthServiceResilienceTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private AuthServiceResilience authServiceResilience;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void resetAuthService() {
+        authService.reset();
+        authService.addUser(1L);
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedServerErrors() {
+        authService.setReadFailureStatus(500);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FeignException.InternalServerError.class, () -> userClient.getUserById(1L));
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> userClient.getUserById(1L));
+
+        assertEquals(4, authService.countRequests("GET /api/users/1"));
+        AuthServiceOperationStatsDTO stats = stats(AuthServiceResilience.HEDGED_OPERATION);
+        assertEquals("OPEN", stats.getState());
+        assertEquals(1, stats.getNotPermittedCalls());
+    }
+
+    @Test
+    void notFoundDoesNotOpenTheCircuit() {
+        for (int i = 0; i < 6; i++) {
+            assertThrows(FeignException.NotFound.class, () -> userClient.getUserById(99L));
+        }
+
+        assertEquals("CLOSED", stats(AuthServiceResilience.HEDGED_OPERATION).getState());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondTheLimit() throws Exception {
+        authService.setResponseDelay(Duration.ofMillis(600));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<UserResponseDTO>> inFlight = List.of(
+                    executor.submit(() -> userClient.getUserById(1L)),
+                    executor.submit(() -> userClient.getUserById(1L)));
+            while (authService.countRequests("GET /api/users/1") < 2) {
+                Thread.sleep(10);
+            }
+
+            long start = System.nanoTime();
+            assertThrows(ServiceUnavailableException.class, () -> userClient.getUserById(1L));
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 300);
+
+            for (Future<UserResponseDTO> call : inFlight) {
+                assertEquals(1L, call.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, authService.countRequests("GET /api/users/1"));
+        assertEquals(1, stats(AuthServiceResilience.HEDGED_OPERATION).getRejectedByBulkhead());
+    }
+
+    @Test
+    void slowResponsesHitTheReadTimeout() {
+        authService.setResponseDelay(Duration.ofSeconds(3));
+
+        long start = System.nanoTime();
+        assertThrows(RetryableException.class, () -> userClient.getUsersByIds(List.of(1L)));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2500);
+        assertEquals(1, stats("UserClient#getUsersByIds(List)").getFailedCalls());
+    }
+
+    @Test
+    void slowLookupIsHedgedOnceEnoughLatenciesAreKnown() {
+        for (int i = 0; i < 10; i++) {
+            userClient.getUserById(1L);
+        }
+        authService.delayNextRequests(1, Duration.ofMillis(800));
+
+        long start = System.nanoTime();
+        UserResponseDTO user = userClient.getUserById(1L);
+
+        assertEquals(1L, user.getId());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 500);
+        assertEquals(12, authService.countRequests("GET /api/users/1"));
+        AuthServiceOperationStatsDTO stats = stats(AuthServiceResilience.HEDGED_OPERATION);
+        assertEquals(1, stats.getHedgesSent());
+        assertEquals(1, stats.getHedgesWon());
+    }
+
+    @Test
+    void hedgedLookupFailsAtOnceWhenThePrimaryCannotBeSent() {
+        for (int i = 0; i < 10; i++) {
+            userClient.getUserById(1L);
+        }
+        // two errors in a window of four reach the 50% failure rate
+        authService.setReadFailureStatus(500);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(FeignException.InternalServerError.class, () -> userClient.getUserById(1L));
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> userClient.getUserById(1L));
+
+        assertEquals(12, authService.countRequests("GET /api/users/1"));
+        AuthServiceOperationStatsDTO stats = stats(AuthServiceResilience.HEDGED_OPERATION);
+        assertEquals("OPEN", stats.getState());
+        assertEquals(0, stats.getHedgesSent());
+    }
+
+    private AuthServiceOperationStatsDTO stats(String operation) {
+        return authServiceResilience.getOperationStats().stream()
+                .filter(stats -> stats.getOperation().equals(operation))
+                .findFirst()
+                .orElseThrow();
+    }
+
+}
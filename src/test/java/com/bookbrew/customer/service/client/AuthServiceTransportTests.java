@@ -0,0 +1,94 @@
+package com.bookbrew.customer.service.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.bookbrew.customer.service.dto.UserDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+
+@SpringBootTest(properties = {
+        "spring.cloud.openfeign.httpclient.max-connections-per-route=2",
+        "auth.service.compression.request.enabled=true",
+        "auth.service.compression.request.min-size=10"
+})
+class AuthServiceTransportTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private Client feignClient;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void resetAuthService() {
+        authService.reset();
+        authService.addUser(1L);
+    }
+
+    @Test
+    void concurrentCallsShareThePooledConnections() throws Exception {
+        assertTrue(feignClient instanceof ApacheHttp5Client);
+        authService.setResponseDelay(Duration.ofMillis(100));
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<UserResponseDTO>> calls = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                calls.add(executor.submit(() -> userClient.getUserById(1L)));
+            }
+            for (Future<UserResponseDTO> call : calls) {
+                assertEquals(1L, call.get().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(12, authService.countRequests("GET /api/users/1"));
+        assertTrue(authService.connectionCount() <= 2, "connections: " + authService.connectionCount());
+    }
+
+    @Test
+    void requestsAndResponsesAreGzipped() {
+        authService.setGzipResponses(true);
+        UserDTO changes = new UserDTO();
+        changes.setName("Compressed");
+
+        userClient.updateUser(1L, changes);
+        UserResponseDTO user = userClient.getUserById(1L);
+
+        assertEquals("Compressed", user.getName());
+        assertEquals(List.of("PUT /api/users/1"), authService.compressedRequests());
+    }
+
+}
@@ -0,0 +1,232 @@
+package com.bookbrew.customer.service.controller;
+
+import static com.bookbrew.customer.service.support.RequestBudget.within;
+import static com.bookbrew.customer.service.support.TestAddresses.ADDRESS;
+import static com.bookbrew.customer.service.support.TestAddresses.address;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.service.UserLookupService;
+import com.bookbrew.customer.service.service.UserSnapshotService;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CustomerControllerConditionalRequestTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserSnapshotService userSnapshotService;
+
+    @Autowired
+    private UserLookupService userLookupService;
+
+    private Customer customer;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void createCustomer() {
+        authService.reset();
+
+        customer = new Customer();
+        customer.setUserId(System.nanoTime());
+        customer.setBirthDate("1990-01-01");
+        customer.setAddresses(new ArrayList<>(List.of(address("Rua A"), address("Rua C"))));
+        customer = customerRepository.save(customer);
+        userSnapshotService.record(authService.addUser(customer.getUserId()));
+    }
+
+    @Test
+    void unchangedCustomerIsNotSentAgain() throws Exception {
+        String uri = "/api/customers/" + customer.getId();
+        String eTag = eTag(uri);
+
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""))
+                .andExpectAll(within(1, 0));
+        mockMvc.perform(get("/api/customers/user/" + customer.getUserId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        assertNotEquals(eTag, eTag(uri));
+    }
+
+    @Test
+    void updateWithStaleIfMatchIsRejected() throws Exception {
+        String uri = "/api/customers/" + customer.getId();
+        String eTag = eTag(uri);
+
+        String newETag = mockMvc.perform(put(uri)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"birthDate\":\"1991-02-03\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(eTag(uri), newETag);
+
+        mockMvc.perform(put(uri)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"birthDate\":\"1992-02-03\"}"))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("1991-02-03", customerRepository.findById(customer.getId()).orElseThrow().getBirthDate());
+    }
+
+    @Test
+    void ifMatchIsCheckedAgainstTheUserTheReadWasServedFrom() throws Exception {
+        String uri = "/api/customers/" + customer.getId();
+
+        // the fresh snapshot lags behind auth-service, which has also seen a login since
+        UserResponseDTO snapshotUser = authService.addUser(customer.getUserId());
+        snapshotUser.setName("Before");
+        userSnapshotService.record(snapshotUser);
+        UserResponseDTO liveUser = authService.addUser(customer.getUserId());
+        liveUser.setName("After");
+        liveUser.setLastLoginDate(LocalDateTime.now());
+        userLookupService.evict(customer.getUserId());
+
+        String eTag = eTag(uri);
+        mockMvc.perform(put(uri)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"birthDate\":\"1991-02-03\"}"))
+                .andExpect(status().isOk());
+        assertEquals(0, authService.countRequests("GET"));
+    }
+
+    @Test
+    void loginChangesTheETag() throws Exception {
+        String uri = "/api/customers/" + customer.getId();
+        String eTag = eTag(uri);
+
+        UserResponseDTO user = authService.addUser(customer.getUserId());
+        user.setLastLoginDate(LocalDateTime.now());
+        userSnapshotService.record(user);
+
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastLoginDate").exists());
+    }
+
+    @Test
+    void readsLeaveThePasswordOutWhereverTheUserComesFrom() throws Exception {
+        String uri = "/api/customers/" + customer.getId();
+        authService.addUser(customer.getUserId()).setPassword("$2a$10$hash");
+
+        String fromSnapshot = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+
+        userSnapshotService.remove(customer.getUserId());
+        userLookupService.evict(customer.getUserId());
+        String fromAuthService = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(1, authService.countRequests("GET /api/users/" + customer.getUserId()));
+        assertEquals(fromSnapshot, fromAuthService);
+    }
+
+    @Test
+    void everyAddressChangeInvalidatesTheAddressList() throws Exception {
+        String uri = "/api/customers/" + customer.getId() + "/addresses";
+        Long addressId = customer.getAddresses().get(0).getId();
+        String addressUri = uri + "/" + addressId;
+
+        String listETag = eTag(uri);
+        String addressETag = eTag(addressUri);
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(addressUri).header(HttpHeaders.IF_NONE_MATCH, addressETag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put(addressUri)
+                .header(HttpHeaders.IF_MATCH, addressETag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ADDRESS))
+                .andExpect(status().isOk());
+        mockMvc.perform(put(addressUri)
+                .header(HttpHeaders.IF_MATCH, addressETag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ADDRESS.replace("Rua B", "Rua D")))
+                .andExpect(status().isPreconditionFailed());
+        listETag = assertChanged(uri, listETag);
+
+        mockMvc.perform(post(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ADDRESS.replace("Rua B", "Rua E")))
+                .andExpect(status().isCreated());
+        listETag = assertChanged(uri, listETag);
+
+        mockMvc.perform(delete(addressUri))
+                .andExpect(status().isNoContent());
+        assertChanged(uri, listETag);
+    }
+
+    private String assertChanged(String uri, String eTag) throws Exception {
+        mockMvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        String newETag = eTag(uri);
+        assertNotEquals(eTag, newETag);
+        return newETag;
+    }
+
+    private String eTag(String uri) throws Exception {
+        return mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.bookbrew.customer.service.controller;
+
+import static com.bookbrew.customer.service.support.TestAddresses.address;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.support.StubAuthService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "customer.export.chunk-size=2")
+@AutoConfigureMockMvc
+class CustomerControllerExportTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private List<Customer> customers;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    // five customers over three chunks; the fourth one's user is gone from auth-service
+    @BeforeEach
+    void createCustomers() {
+        customerRepository.deleteAll();
+        authService.reset();
+
+        customers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Customer customer = new Customer();
+            customer.setUserId(System.nanoTime());
+            customer.setBirthDate("1990-01-0" + (i + 1));
+            customer.setAddresses(new ArrayList<>(List.of(address("Rua " + i))));
+            customers.add(customerRepository.save(customer));
+            if (i != 3) {
+                authService.addUser(customer.getUserId());
+            }
+        }
+        authService.addUser(customers.get(0).getUserId()).setName("Silva, \"Ana\"");
+    }
+
+    @Test
+    void ndjsonExportWritesOneCustomerPerLineAndSkipsMissingUsers() throws Exception {
+        String output = export("ndjson", MediaType.APPLICATION_NDJSON_VALUE);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertEquals(List.of(customers.get(0).getId(), customers.get(1).getId(), customers.get(2).getId(),
+                customers.get(4).getId()), lines.stream().map(line -> line.get("id").asLong()).toList());
+
+        JsonNode first = lines.get(0);
+        assertEquals(customers.get(0).getUserId(), first.get("userId").asLong());
+        assertEquals("Silva, \"Ana\"", first.get("name").asText());
+        assertEquals("1990-01-01", first.get("birthDate").asText());
+        assertEquals(customers.get(0).getAddresses().get(0).getId(), first.get("addressesId").get(0).asLong());
+        assertFalse(first.hasNonNull("password"));
+    }
+
+    @Test
+    void csvExportWritesAHeaderAndQuotesValues() throws Exception {
+        String[] rows = export("csv", "text/csv").split("\n");
+
+        assertEquals(5, rows.length);
+        assertEquals("id,userId,name,lastName,email,cpf,phone,status,birthDate,profile,"
+                + "creationDate,updateDate,lastLoginDate,passwordUpdateDate,addressesId", rows[0]);
+
+        Customer first = customers.get(0);
+        Long userId = first.getUserId();
+        assertEquals(first.getId() + "," + userId + ",\"Silva, \"\"Ana\"\"\",Last " + userId
+                + ",user" + userId + "@bookbrew.com," + String.format("%011d", userId)
+                + ",5511999999999,true,1990-01-01,4,,,,," + first.getAddresses().get(0).getId(), rows[1]);
+        assertEquals(customers.get(4).getId(), Long.valueOf(rows[4].substring(0, rows[4].indexOf(','))));
+    }
+
+    @Test
+    void unsupportedFormatIsRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/api/customers/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(request().asyncNotStarted())
+                .andExpect(jsonPath("$.details").value("Unsupported export format: xml"));
+    }
+
+    private String export(String format, String contentType) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/customers/export").param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(contentType))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=customers." + format))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+}
@@ -0,0 +1,210 @@
+package com.bookbrew.customer.service.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.bookbrew.customer.service.dto.CustomerImportResultDTO;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.model.UserOutboxEvent;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.repository.UserOutboxRepository;
+import com.bookbrew.customer.service.repository.UserSnapshotRepository;
+import com.bookbrew.customer.service.support.StubAuthService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = { "customer.import.batch-size=2", "customer.import.request-timeout=PT5M",
+        "customer.fan-out.call-timeout=PT1S" })
+@AutoConfigureMockMvc
+class CustomerControllerImportTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserSnapshotRepository userSnapshotRepository;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        customerRepository.deleteAll();
+        userSnapshotRepository.deleteAll();
+        userOutboxRepository.deleteAll();
+        authService.reset();
+    }
+
+    @Test
+    void importStreamsOneResultPerRecordWithinItsOwnTimeout() throws Exception {
+        String body = String.join("\n",
+                record("Ana", "Rua A"),
+                "{not json",
+                "",
+                record(null, "Rua B"),
+                record("Bia", "Rua C"),
+                record("Caio", "Rua D"));
+
+        MvcResult started = mockMvc.perform(post("/api/customers/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // the long timeout only applies to this request
+        assertEquals(300_000, started.getRequest().getAsyncContext().getTimeout());
+
+        String output = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<CustomerImportResultDTO> results = results(output);
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), results.stream().map(CustomerImportResultDTO::getLine).toList());
+        assertEquals(List.of("CREATED", "FAILED", "FAILED", "CREATED", "CREATED"),
+                results.stream().map(CustomerImportResultDTO::getStatus).toList());
+        assertTrue(results.get(1).getError().startsWith("Malformed record"), results.get(1).getError());
+        assertNull(results.get(2).getCustomerId());
+
+        assertEquals(3, customerRepository.count());
+        for (CustomerImportResultDTO result : List.of(results.get(0), results.get(3), results.get(4))) {
+            assertTrue(customerRepository.existsById(result.getCustomerId()));
+            assertTrue(authService.hasUser(result.getUserId()));
+        }
+        // invalid records never reach auth-service
+        assertEquals(3, authService.countRequests("POST /api/users"));
+    }
+
+    @Test
+    void failedBatchFallsBackToSingleInsertsAndCompensatesTheRejectedUser() throws Exception {
+        // passes validation but does not fit the street column, so the batch insert fails
+        String body = String.join("\n", record("Ana", "Rua A"), record("Bia", "R".repeat(300)));
+
+        MvcResult started = mockMvc.perform(post("/api/customers/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String output = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<CustomerImportResultDTO> results = results(output);
+        assertEquals(2, results.size());
+        assertEquals(CustomerImportResultDTO.CREATED, results.get(0).getStatus());
+        assertTrue(customerRepository.existsById(results.get(0).getCustomerId()));
+        assertEquals(CustomerImportResultDTO.FAILED, results.get(1).getStatus());
+        assertTrue(results.get(1).getError().startsWith("Failed to create customer"), results.get(1).getError());
+        assertEquals(1, customerRepository.count());
+
+        // the user created for the rejected record is queued for deletion, the other one is kept
+        List<UserOutboxEvent> events = userOutboxRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals(UserOutboxEvent.Type.DELETE_USER, events.get(0).getType());
+        assertFalse(events.get(0).getUserId().equals(results.get(0).getUserId()));
+        assertTrue(authService.hasUser(events.get(0).getUserId()));
+    }
+
+    @Test
+    void userCreationThatTimesOutFailsItsRecordOnly() throws Exception {
+        // whichever record reaches auth-service first is answered after the fan-out has given up on it
+        authService.delayNextRequests(1, Duration.ofSeconds(2));
+        String body = String.join("\n", record("Ana", "Rua A"), record("Bia", "Rua BB"));
+
+        MvcResult started = mockMvc.perform(post("/api/customers/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String output = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<CustomerImportResultDTO> results = results(output);
+        assertEquals(List.of(1L, 2L), results.stream().map(CustomerImportResultDTO::getLine).toList());
+        CustomerImportResultDTO failed = results.stream()
+                .filter(result -> CustomerImportResultDTO.FAILED.equals(result.getStatus()))
+                .findFirst().orElseThrow();
+        assertTrue(failed.getError().contains("did not complete"), failed.getError());
+        CustomerImportResultDTO created = results.stream()
+                .filter(result -> CustomerImportResultDTO.CREATED.equals(result.getStatus()))
+                .findFirst().orElseThrow();
+        assertEquals(List.of(created.getCustomerId()),
+                customerRepository.findAll().stream().map(Customer::getId).toList());
+    }
+
+    private String record(String name, String street) throws Exception {
+        Map<String, Object> address = Map.of(
+                "zipCode", "01001-000",
+                "street", street,
+                "number", "10",
+                "complement", "Apto 1",
+                "neighborhood", "Centro",
+                "type", "HOME",
+                "city", "Sao Paulo",
+                "state", "SP",
+                "country", "Brasil");
+        Map<String, Object> customer = new HashMap<>(Map.of(
+                "lastName", "Silva",
+                "email", street.length() + "@bookbrew.com",
+                "cpf", "12345678909",
+                "phone", "11999999999",
+                "password", "secret",
+                "birthDate", "1990-01-01",
+                "addresses", List.of(address)));
+        if (name != null) {
+            customer.put("name", name);
+        }
+        return objectMapper.writeValueAsString(customer);
+    }
+
+    private List<CustomerImportResultDTO> results(String output) throws Exception {
+        List<CustomerImportResultDTO> results = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            results.add(objectMapper.readValue(line, CustomerImportResultDTO.class));
+        }
+        return results;
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.bookbrew.customer.service.controller;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.repository.UserSnapshotRepository;
+import com.bookbrew.customer.service.service.UserSnapshotService;
+import com.bookbrew.customer.service.support.StubAuthService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "customer.pagination.max-size=3")
+@AutoConfigureMockMvc
+class CustomerControllerPaginationTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserSnapshotRepository userSnapshotRepository;
+
+    @Autowired
+    private UserSnapshotService userSnapshotService;
+
+    private List<Long> customerIds;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void createCustomers() {
+        customerRepository.deleteAll();
+        userSnapshotRepository.deleteAll();
+        authService.reset();
+
+        customerIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Customer customer = new Customer();
+            customer.setUserId(System.nanoTime());
+            customer.setBirthDate("1990-01-01");
+            customerIds.add(customerRepository.save(customer).getId());
+            userSnapshotService.record(authService.addUser(customer.getUserId()));
+        }
+    }
+
+    @Test
+    void pagesAreServedInIdOrder() throws Exception {
+        mockMvc.perform(get("/api/customers").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page").value(1))
+                .andExpect(jsonPath("$.size").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(customerIds.get(2)))
+                .andExpect(jsonPath("$.content[1].id").value(customerIds.get(3)))
+                .andExpect(jsonPath("$.hasNext").value(true));
+        mockMvc.perform(get("/api/customers").param("page", "2").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+        // sizes above customer.pagination.max-size are clamped
+        mockMvc.perform(get("/api/customers").param("size", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(3))
+                .andExpect(jsonPath("$.content.length()").value(3));
+    }
+
+    @Test
+    void cursorWalksEveryCustomerOnceAndStopsOnTheLastPage() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        JsonNode page = page(get("/api/customers").param("size", "2"));
+        while (true) {
+            page.get("content").forEach(customer -> seen.add(customer.get("id").asLong()));
+            if (!page.get("hasNext").asBoolean()) {
+                break;
+            }
+            page = page(get("/api/customers").param("size", "2").param("cursor", page.get("nextCursor").asText()));
+        }
+
+        assertEquals(customerIds, seen);
+        assertTrue(page.get("nextCursor").isNull());
+    }
+
+    @Test
+    void invalidPagingParametersAreRejected() throws Exception {
+        mockMvc.perform(get("/api/customers").param("page", "-1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details").value("Page must not be negative"));
+        mockMvc.perform(get("/api/customers").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/customers").param("size", "-5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/customers").param("cursor", "not a cursor!"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details").value("Invalid cursor: not a cursor!"));
+        // valid base64 that does not hold an id
+        mockMvc.perform(get("/api/customers").param("cursor", "YWJj"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode page(RequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+}
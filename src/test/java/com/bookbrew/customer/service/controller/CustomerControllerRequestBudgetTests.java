@@ -0,0 +1,191 @@
+package com.bookbrew.customer.service.controller;
+
+import static com.bookbrew.customer.service.support.RequestBudget.recorded;
+import static com.bookbrew.customer.service.support.RequestBudget.within;
+import static com.bookbrew.customer.service.support.TestAddresses.ADDRESS;
+import static com.bookbrew.customer.service.support.TestAddresses.address;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.repository.UserSnapshotRepository;
+import com.bookbrew.customer.service.service.UserSnapshotService;
+import com.bookbrew.customer.service.support.RequestBudget.Recorded;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// query and auth-service call budgets per endpoint; raising one needs a reason, an N+1 fails here
+@SpringBootTest
+@AutoConfigureMockMvc
+class CustomerControllerRequestBudgetTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserSnapshotRepository userSnapshotRepository;
+
+    @Autowired
+    private UserSnapshotService userSnapshotService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private List<Customer> customers;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void createCustomers() {
+        customerRepository.deleteAll();
+        userSnapshotRepository.deleteAll();
+        authService.reset();
+
+        customers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Customer customer = new Customer();
+            customer.setUserId(System.nanoTime());
+            customer.setBirthDate("1990-01-01");
+            customer.setAddresses(new ArrayList<>(List.of(address("Rua " + i + "A"), address("Rua " + i + "B"))));
+            customers.add(customerRepository.save(customer));
+            userSnapshotService.record(authService.addUser(customer.getUserId()));
+        }
+    }
+
+    @Test
+    void readEndpoints() throws Exception {
+        Customer customer = customers.get(0);
+
+        mockMvc.perform(get("/api/customers").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpectAll(within(2, 1));
+        mockMvc.perform(get("/api/customers").param("page", "1").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpectAll(within(2, 1));
+        // customers, their addresses and the user snapshots
+        mockMvc.perform(get("/api/customers/search").param("city", "Sao Paulo").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpectAll(within(3, 0));
+        mockMvc.perform(get("/api/customers/" + customer.getId()))
+                .andExpect(status().isOk())
+                .andExpectAll(within(1, 0));
+        mockMvc.perform(get("/api/customers/user/" + customer.getUserId()))
+                .andExpect(status().isOk())
+                .andExpectAll(within(1, 0));
+        mockMvc.perform(get("/api/customers/" + customer.getId() + "/addresses"))
+                .andExpect(status().isOk())
+                .andExpectAll(within(1, 0));
+        mockMvc.perform(get("/api/customers/" + customer.getId() + "/addresses/"
+                + customer.getAddresses().get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpectAll(within(1, 0));
+    }
+
+    @Test
+    void writeEndpoints() throws Exception {
+        Customer customer = customers.get(0);
+
+        mockMvc.perform(post("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Ana\",\"lastName\":\"Silva\",\"email\":\"ana@bookbrew.com\","
+                        + "\"cpf\":\"52998224725\",\"phone\":\"5511999999999\",\"password\":\"Secret@123\","
+                        + "\"birthDate\":\"1990-01-01\",\"addresses\":[" + ADDRESS + "]}"))
+                .andExpect(status().isCreated())
+                // customer, addresses and the user snapshot
+                .andExpectAll(within(3, 1));
+        mockMvc.perform(put("/api/customers/" + customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"birthDate\":\"1991-02-03\",\"addresses\":[" + ADDRESS + "]}"))
+                .andExpect(status().isOk())
+                .andExpectAll(within(4, 1));
+        mockMvc.perform(post("/api/customers/" + customer.getId() + "/addresses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ADDRESS.replace("Rua B", "Rua C")))
+                .andExpect(status().isCreated())
+                // the duplicate check is an indexed exists query; the customer version is bumped so cached
+                // address lists are invalidated
+                .andExpectAll(within(4, 0));
+        Long addressId = customer.getAddresses().get(1).getId();
+        mockMvc.perform(put("/api/customers/" + customer.getId() + "/addresses/" + addressId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ADDRESS.replace("Rua B", "Rua D")))
+                .andExpect(status().isOk())
+                .andExpectAll(within(5, 0));
+        mockMvc.perform(delete("/api/customers/" + customer.getId() + "/addresses/" + addressId))
+                .andExpect(status().isNoContent())
+                .andExpectAll(within(4, 0));
+        mockMvc.perform(delete("/api/customers/" + customers.get(1).getId()))
+                .andExpect(status().isNoContent())
+                // the user snapshot goes in the same transaction
+                .andExpectAll(within(6, 0));
+    }
+
+    @Test
+    void asyncEndpoints() throws Exception {
+        Recorded export = recorded(meterRegistry, "GET", "/api/customers/export");
+        MvcResult started = mockMvc.perform(get("/api/customers/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+        // one page of customers with their addresses and one batch lookup of its users
+        export.assertWithin(2, 1);
+        // counted when the job is done, not when the request that started it returned
+        assertTrue(export.queries() > 0);
+
+        Recorded bulk = recorded(meterRegistry, "POST", "/api/customers/bulk");
+        started = mockMvc.perform(post("/api/customers/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(importRecord("bia@bookbrew.com", ADDRESS) + "\n"
+                        + importRecord("caio@bookbrew.com", ADDRESS.replace("Rua B", "Rua C"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+        // the records of a batch are inserted together; every user is created with a call of its own
+        bulk.assertWithin(2, 2);
+    }
+
+    private String importRecord(String email, String address) {
+        return "{\"name\":\"Bia\",\"lastName\":\"Silva\",\"email\":\"" + email + "\",\"cpf\":\"52998224725\","
+                + "\"phone\":\"5511999999999\",\"password\":\"Secret@123\",\"birthDate\":\"1990-01-01\","
+                + "\"addresses\":[" + address + "]}";
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.bookbrew.customer.service.controller;
+
+import static com.bookbrew.customer.service.support.TestAddresses.address;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.MethodMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.bookbrew.customer.service.client.AuthServiceResilience;
+import com.bookbrew.customer.service.dto.AuthServiceOperationStatsDTO;
+import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.repository.UserOutboxRepository;
+import com.bookbrew.customer.service.repository.UserSnapshotRepository;
+import com.bookbrew.customer.service.service.UserSnapshotService;
+import com.bookbrew.customer.service.support.QueuedUpdates;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+// the outbox dispatcher is held back so queued commands are only sent by the update under test
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+        properties = { "auth.service.batch-size=2", "customer.outbox.poll-interval=PT1H",
+                "auth.service.circuit-breaker.sliding-window-size=4", "auth.service.circuit-breaker.minimum-calls=4" })
+@ActiveProfiles("reactive")
+@AutoConfigureObservability(tracing = false)
+class ReactiveCustomerControllerTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserSnapshotRepository userSnapshotRepository;
+
+    @Autowired
+    private UserSnapshotService userSnapshotService;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @Autowired
+    private PrometheusMeterRegistry prometheusMeterRegistry;
+
+    @Autowired
+    private AuthServiceResilience authServiceResilience;
+
+    private List<Customer> customers;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void createCustomers() {
+        customerRepository.deleteAll();
+        userSnapshotRepository.deleteAll();
+        userOutboxRepository.deleteAll();
+        authService.reset();
+
+        customers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Customer customer = new Customer();
+            customer.setUserId(System.nanoTime());
+            customer.setBirthDate("1990-01-01");
+            customer.setAddresses(new ArrayList<>(List.of(address("Rua " + i))));
+            customers.add(customerRepository.save(customer));
+            authService.addUser(customer.getUserId());
+        }
+    }
+
+    @Test
+    void customerIsServedFromItsSnapshotAndNotSentAgainWhenUnchanged() {
+        Customer customer = customers.get(0);
+        userSnapshotService.record(authService.addUser(customer.getUserId()));
+
+        String eTag = webTestClient.get().uri("/api/customers/{id}", customer.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Name " + customer.getUserId())
+                .returnResult().getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/customers/user/{userId}", customer.getUserId())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        webTestClient.get().uri("/api/customers/{id}", 0)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.details").isEqualTo("Customer not found with id: 0");
+        assertEquals(List.of(), authService.requests());
+    }
+
+    @Test
+    void usersWithoutSnapshotsAreFetchedInBatchesOrOneByOne() {
+        webTestClient.get().uri("/api/customers?size=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(3)
+                .jsonPath("$.content[2].name").isEqualTo("Name " + customers.get(2).getUserId());
+        assertEquals(2, authService.countRequests("GET /api/users/batch"));
+        // registered next to the Feign timers of the profile lookup, so the tag keys have to match theirs
+        assertNotNull(prometheusMeterRegistry.find("http.client.requests")
+                .tag("operation", "ReactiveUserClient#getUsersByIds(List)")
+                .timer());
+
+        authService.reset();
+        customers.forEach(customer -> authService.addUser(customer.getUserId()));
+        authService.setBulkEndpointEnabled(false);
+
+        webTestClient.get().uri("/api/customers?size=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.content[0].name").isEqualTo("Name " + customers.get(0).getUserId());
+        assertEquals(3, authService.countRequests("GET /api/users/")
+                - authService.countRequests("GET /api/users/batch"));
+    }
+
+    @Test
+    void createdCustomerIsRecordedWithItsSnapshot() {
+        CustomerDTO created = webTestClient.post().uri("/api/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Ana\",\"lastName\":\"Silva\",\"email\":\"ana@bookbrew.com\","
+                        + "\"cpf\":\"52998224725\",\"phone\":\"5511999999999\",\"password\":\"Secret@123\","
+                        + "\"birthDate\":\"1990-01-01\",\"addresses\":[{\"zipCode\":\"20040-002\","
+                        + "\"street\":\"Rua B\",\"number\":\"1\",\"complement\":\"Casa\",\"neighborhood\":\"Centro\","
+                        + "\"type\":\"WORK\",\"city\":\"Rio de Janeiro\",\"state\":\"RJ\",\"country\":\"Brazil\"}]}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CustomerDTO.class)
+                .returnResult().getResponseBody();
+
+        assertEquals("Ana", created.getName());
+        assertTrue(userSnapshotRepository.existsById(created.getUserId()));
+        assertEquals(1, authService.countRequests("POST /api/users"));
+    }
+
+    @Test
+    void updateSendsTheQueuedCommandsAndTheChangeOverWebClient() {
+        Customer customer = customers.get(0);
+        Long userId = customer.getUserId();
+        String eTag = webTestClient.get().uri("/api/customers/{id}", customer.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseHeaders().getETag();
+
+        webTestClient.put().uri("/api/customers/{id}", customer.getId())
+                .header(HttpHeaders.IF_MATCH, "\"stale\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Direct\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        userOutboxRepository.save(QueuedUpdates.of(userId, "{\"phone\":\"5511888888888\"}"));
+
+        webTestClient.put().uri("/api/customers/{id}", customer.getId())
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Direct\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Direct")
+                .jsonPath("$.phone").isEqualTo("5511888888888");
+
+        // the user was read once, then the queued command and the change went out in order
+        assertEquals(List.of("GET /api/users/" + userId, "PUT /api/users/" + userId, "PUT /api/users/" + userId),
+                authService.requests());
+        assertEquals(0, userOutboxRepository.count());
+        assertEquals("Direct", userSnapshotRepository.findById(userId).orElseThrow().getName());
+        assertNotNull(prometheusMeterRegistry.find("http.client.requests")
+                .tag("operation", "ReactiveUserClient#updateUser(Long,UserDTO)")
+                .timer());
+        assertNull(prometheusMeterRegistry.find("http.client.requests")
+                .tag("operation", "UserClient#updateUser(Long,UserDTO)")
+                .timer());
+    }
+
+    // four errors fill the window whatever earlier tests left in it; the open circuit goes with the context
+    @Test
+    @DirtiesContext(methodMode = MethodMode.AFTER_METHOD)
+    void authServiceErrorsOpenTheCircuitOfTheReactiveClient() {
+        authService.setReadFailureStatus(500);
+        Long customerId = customers.get(0).getId();
+        for (int i = 0; i < 4; i++) {
+            webTestClient.get().uri("/api/customers/{id}", customerId).exchange();
+        }
+        long requests = authService.countRequests("GET /api/users/");
+
+        webTestClient.get().uri("/api/customers/{id}", customerId)
+                .exchange()
+                .expectStatus().isEqualTo(503);
+
+        assertEquals(requests, authService.countRequests("GET /api/users/"));
+        AuthServiceOperationStatsDTO stats = authServiceResilience.getOperationStats().stream()
+                .filter(operation -> operation.getOperation().equals("ReactiveUserClient#getUserById(Long)"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("OPEN", stats.getState());
+        assertTrue(stats.getNotPermittedCalls() >= 1);
+    }
+
+}
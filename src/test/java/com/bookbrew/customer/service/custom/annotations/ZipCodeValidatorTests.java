@@ -0,0 +1,46 @@
+package com.bookbrew.customer.service.custom.annotations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.bookbrew.customer.service.model.Address;
+
+class ZipCodeValidatorTests {
+
+    private final ZipCodeValidator validator = new ZipCodeValidator();
+
+    @Test
+    void acceptsHyphenatedAndCompactZipCodes() {
+        assertTrue(validator.isValid("01001-000", null));
+        assertTrue(validator.isValid("01001000", null));
+    }
+
+    @Test
+    void rejectsMalformedZipCodes() {
+        for (String zipCode : new String[] { null, "", "0100-1000", "01001-00", "010010000", "01001 000",
+                "0100a000", "01001_000", "０1001000" }) {
+            assertFalse(validator.isValid(zipCode, null), zipCode);
+        }
+    }
+
+    @Test
+    void normalizeStripsHyphenFromValidZipCodesOnly() {
+        assertEquals("01001000", ZipCodeValidator.normalize("01001-000"));
+        assertEquals("01001000", ZipCodeValidator.normalize("01001000"));
+        assertEquals("0100-1000", ZipCodeValidator.normalize("0100-1000"));
+        assertNull(ZipCodeValidator.normalize(null));
+    }
+
+    @Test
+    void addressStoresCanonicalZipCode() {
+        Address address = new Address();
+        address.setZipCode("01001-000");
+
+        assertEquals("01001000", address.getZipCode());
+    }
+
+}
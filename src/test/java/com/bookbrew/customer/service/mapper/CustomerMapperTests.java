@@ -0,0 +1,155 @@
+package com.bookbrew.customer.service.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import com.bookbrew.customer.service.dto.AddressUpdateDTO;
+import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.dto.CustomerSearchDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class CustomerMapperTests {
+
+    private final CustomerMapper customerMapper = new CustomerMapper();
+
+    private final ModelMapper modelMapper = legacyModelMapper();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void toCustomerSearchDTOMatchesModelMapperOutput() {
+        Customer customer = customer();
+        UserResponseDTO user = user();
+
+        CustomerSearchDTO expected = modelMapper.map(customer, CustomerSearchDTO.class);
+        List<Long> addressesId = new ArrayList<>();
+        for (Address address : customer.getAddresses()) {
+            addressesId.add(address.getId());
+        }
+        expected.setName(user.getName());
+        expected.setLastName(user.getLastName());
+        expected.setEmail(user.getEmail());
+        expected.setCpf(user.getCpf());
+        expected.setPhone(user.getPhone());
+        expected.setStatus(user.getStatus());
+        expected.setAddressesId(addressesId);
+        expected.setProfile(user.getIdProfile());
+        expected.setCreationDate(user.getCreationDate());
+        expected.setUpdateDate(user.getUpdateDate());
+        expected.setLastLoginDate(user.getLastLoginDate());
+        expected.setPasswordUpdateDate(user.getPasswordUpdateDate());
+
+        assertEquals(objectMapper.valueToTree(expected),
+                objectMapper.valueToTree(customerMapper.toCustomerSearchDTO(customer, user)));
+    }
+
+    @Test
+    void toCustomerDTOMatchesModelMapperOutput() {
+        Customer customer = customer();
+        UserResponseDTO user = user();
+
+        CustomerDTO expected = modelMapper.map(customer, CustomerDTO.class);
+        expected.setName(user.getName());
+        expected.setLastName(user.getLastName());
+        expected.setEmail(user.getEmail());
+        expected.setCpf(user.getCpf());
+        expected.setPhone(user.getPhone());
+        expected.setStatus(user.getStatus());
+        expected.setProfile(4L);
+        expected.setPassword(user.getPassword());
+        expected.setUpdateDate(user.getUpdateDate());
+        expected.setPasswordUpdateDate(user.getPasswordUpdateDate());
+        expected.setAddresses(customer.getAddresses());
+
+        assertEquals(objectMapper.valueToTree(expected),
+                objectMapper.valueToTree(customerMapper.toCustomerDTO(customer, user, 4L)));
+    }
+
+    @Test
+    void toAddressCopiesEveryFieldButTheId() {
+        Address source = address(7L, "Rua A");
+
+        Address copy = customerMapper.toAddress(source);
+        source.setId(null);
+
+        assertNotSame(source, copy);
+        assertEquals(objectMapper.valueToTree(source), objectMapper.valueToTree(copy));
+    }
+
+    @Test
+    void applyAddressUpdateOnlyOverwritesProvidedFields() {
+        Address address = address(7L, "Rua A");
+        AddressUpdateDTO update = new AddressUpdateDTO();
+        update.setStreet("Rua B");
+        update.setComplement("Fundos");
+
+        customerMapper.applyAddressUpdate(update, address);
+
+        assertEquals("Rua B", address.getStreet());
+        assertEquals("Fundos", address.getComplement());
+        assertEquals("01001000", address.getZipCode());
+        assertEquals("Sao Paulo", address.getCity());
+    }
+
+    private ModelMapper legacyModelMapper() {
+        ModelMapper legacy = new ModelMapper();
+        legacy.getConfiguration()
+                .setPropertyCondition(context -> context.getSource() != null)
+                .setSkipNullEnabled(true)
+                .setAmbiguityIgnored(true);
+        return legacy;
+    }
+
+    private Customer customer() {
+        Customer customer = new Customer();
+        customer.setId(10L);
+        customer.setUserId(20L);
+        customer.setBirthDate("1990-05-01");
+        customer.setAddresses(new ArrayList<>(List.of(address(1L, "Rua A"), address(2L, "Rua B"))));
+        return customer;
+    }
+
+    private UserResponseDTO user() {
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(20L);
+        user.setName("Ana");
+        user.setLastName("Silva");
+        user.setEmail("ana@bookbrew.com");
+        user.setCpf("12345678901");
+        user.setPhone("5511999999999");
+        user.setPassword("hash");
+        user.setStatus(true);
+        user.setIdProfile(4L);
+        user.setCreationDate(LocalDateTime.of(2024, 1, 1, 10, 0));
+        user.setUpdateDate(LocalDateTime.of(2024, 2, 1, 10, 0));
+        user.setLastLoginDate(LocalDateTime.of(2024, 3, 1, 10, 0));
+        user.setPasswordUpdateDate(LocalDateTime.of(2024, 4, 1, 10, 0));
+        return user;
+    }
+
+    private Address address(Long id, String street) {
+        Address address = new Address();
+        address.setId(id);
+        address.setZipCode("01001-000");
+        address.setStreet(street);
+        address.setNumber("100");
+        address.setComplement("Apt 1");
+        address.setNeighborhood("Centro");
+        address.setType("HOME");
+        address.setCity("Sao Paulo");
+        address.setState("SP");
+        address.setCountry("Brazil");
+        return address;
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.bookbrew.customer.service.repository;
+
+import static com.bookbrew.customer.service.support.TestAddresses.address;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+
+@DataJpaTest
+@Import(AddressBackfill.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AddressBackfillTests {
+
+    @Autowired
+    private AddressBackfill addressBackfill;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteCustomers() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void missingFingerprintsAreFilledInAndDuplicatesAreLeftAlone() {
+        Customer customer = new Customer();
+        customer.setUserId(1L);
+        customer.setBirthDate("1990-01-01");
+        customer.setAddresses(new ArrayList<>(List.of(address("Rua A"), address("Rua B"), address("Rua C"))));
+        customer = customerRepository.save(customer);
+        Address first = customer.getAddresses().get(0);
+        Address second = customer.getAddresses().get(1);
+        Address third = customer.getAddresses().get(2);
+
+        // rows as written before fingerprints existed, two of them the same address in different case
+        jdbcTemplate.update("update addresses set fingerprint = null");
+        jdbcTemplate.update("update addresses set street = 'RUA A' where id = ?", third.getId());
+
+        addressBackfill.backfillFingerprints();
+
+        assertEquals(first.computeFingerprint(), fingerprint(first.getId()));
+        assertEquals(second.computeFingerprint(), fingerprint(second.getId()));
+        assertNull(fingerprint(third.getId()));
+
+        // nothing left to do the second time
+        addressBackfill.backfillFingerprints();
+        assertNull(fingerprint(third.getId()));
+    }
+
+    @Test
+    void hyphenatedZipCodesAreNormalizedAndTheirFingerprintsRecomputed() {
+        Customer customer = new Customer();
+        customer.setUserId(2L);
+        customer.setBirthDate("1990-01-01");
+        customer.setAddresses(new ArrayList<>(List.of(address("Rua A"), address("Rua B"))));
+        customer = customerRepository.save(customer);
+        Address hyphenated = customer.getAddresses().get(0);
+        Address compact = customer.getAddresses().get(1);
+
+        // as stored before the validator normalized, with the fingerprint taken from the hyphenated value
+        jdbcTemplate.update("update addresses set zip_code = '01001-000', fingerprint = 'stale' where id = ?",
+                hyphenated.getId());
+        String compactFingerprint = fingerprint(compact.getId());
+
+        addressBackfill.init();
+
+        assertEquals("01001000", zipCode(hyphenated.getId()));
+        assertEquals(hyphenated.computeFingerprint(), fingerprint(hyphenated.getId()));
+        assertEquals("01001000", zipCode(compact.getId()));
+        assertEquals(compactFingerprint, fingerprint(compact.getId()));
+    }
+
+    private String zipCode(Long addressId) {
+        return jdbcTemplate.queryForObject("select zip_code from addresses where id = ?", String.class, addressId);
+    }
+
+    private String fingerprint(Long addressId) {
+        return jdbcTemplate.queryForObject("select fingerprint from addresses where id = ?", String.class, addressId);
+    }
+
+}
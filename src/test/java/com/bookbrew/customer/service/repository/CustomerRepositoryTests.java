@@ -0,0 +1,145 @@
+package com.bookbrew.customer.service.repository;
+
+import static com.bookbrew.customer.service.support.TestAddresses.address;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CustomerRepositoryTests {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private AddressRepository addressRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    private Long firstCustomerId;
+
+    @BeforeEach
+    void setUp() {
+        for (long userId = 1; userId <= 5; userId++) {
+            Customer customer = new Customer();
+            customer.setUserId(userId);
+            customer.setBirthDate("1990-01-01");
+            customer.setAddresses(new ArrayList<>(List.of(address("Street " + userId), address("Other " + userId))));
+            entityManager.persist(customer);
+            if (firstCustomerId == null) {
+                firstCustomerId = customer.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findByIdDoesNotLoadAddresses() {
+        Customer customer = customerRepository.findById(firstCustomerId).orElseThrow();
+
+        assertFalse(Hibernate.isInitialized(customer.getAddresses()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findWithAddressesByIdLoadsAddressesInOneStatement() {
+        Customer customer = customerRepository.findWithAddressesById(firstCustomerId).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(customer.getAddresses()));
+        assertEquals(2, customer.getAddresses().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void pageOfCustomersBatchFetchesAddresses() {
+        Slice<Customer> customers = customerRepository.findAllByOrderByIdAsc(PageRequest.of(0, 5));
+
+        int addresses = 0;
+        for (Customer customer : customers) {
+            addresses += customer.getAddresses().size();
+        }
+
+        assertEquals(10, addresses);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findByIdAndCustomerIdOnlyReadsTheAddress() {
+        Long addressId = customerRepository.findWithAddressesById(firstCustomerId).orElseThrow()
+                .getAddresses().get(0).getId();
+        entityManager.clear();
+        statistics.clear();
+
+        assertTrue(addressRepository.findByIdAndCustomerId(addressId, firstCustomerId).isPresent());
+        assertFalse(addressRepository.findByIdAndCustomerId(addressId, firstCustomerId + 1).isPresent());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void savingCustomerBatchesAddressInserts() {
+        Customer customer = new Customer();
+        customer.setUserId(99L);
+        customer.setBirthDate("1990-01-01");
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            addresses.add(address("Batch " + i));
+        }
+        customer.setAddresses(addresses);
+
+        customerRepository.save(customer);
+        entityManager.flush();
+
+        assertEquals(11, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 3);
+    }
+
+    @Test
+    void fingerprintIsKeptInSyncAndUniquePerCustomer() {
+        Address address = customerRepository.findWithAddressesById(firstCustomerId).orElseThrow()
+                .getAddresses().get(0);
+        address.setStreet("  RENAMED   Street 1 ");
+        entityManager.flush();
+        entityManager.clear();
+
+        Address updated = addressRepository.findById(address.getId()).orElseThrow();
+        assertEquals(updated.computeFingerprint(), updated.getFingerprint());
+        assertEquals(address("renamed street 1").computeFingerprint(), updated.getFingerprint());
+        assertTrue(addressRepository.existsByCustomerIdAndFingerprintAndIdNot(firstCustomerId,
+                updated.getFingerprint(), -1L));
+
+        Customer customer = customerRepository.findWithAddressesById(firstCustomerId + 1).orElseThrow();
+        customer.getAddresses().add(address("Other 1"));
+        entityManager.flush();
+
+        customer.getAddresses().add(address("Street 2"));
+        assertThrows(ConstraintViolationException.class, () -> entityManager.flush());
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.bookbrew.customer.service.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bookbrew.customer.service.dto.CustomerSearchFilterDTO;
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.model.UserSnapshot;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bookbrew.customer.service.repository.CustomerSpecificationsTests$LastStatement")
+class CustomerSpecificationsTests {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Customer> customers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String[][] rows = {
+                { "Ana", "Silva", "Sao Paulo", "SP", "01001-000" },
+                { "Anabela", "Souza", "Campinas", "SP", "13010-000" },
+                { "Bruno", "Silva", "Rio de Janeiro", "RJ", "20040-002" },
+                { "Carla", "Costa", "Sao Paulo", "SP", "04538-132" }
+        };
+        for (int i = 0; i < rows.length; i++) {
+            Customer customer = new Customer();
+            customer.setUserId(100L + i);
+            customer.setBirthDate("1990-01-01");
+            customer.setAddresses(new ArrayList<>(List.of(address(rows[i][2], rows[i][3], rows[i][4]))));
+            entityManager.persist(customer);
+            customers.add(customer);
+
+            UserSnapshot snapshot = new UserSnapshot();
+            snapshot.setUserId(customer.getUserId());
+            snapshot.setName(rows[i][0]);
+            snapshot.setLastName(rows[i][1]);
+            snapshot.setEmail(rows[i][0].toLowerCase() + "@bookbrew.com");
+            snapshot.setCpf(String.format("%011d", customer.getUserId()));
+            snapshot.setRefreshedAt(Instant.now());
+            entityManager.persist(snapshot);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void filtersAreCombined() {
+        assertEquals(List.of(0, 1), search(filter -> filter.setName("Ana")));
+        assertEquals(List.of(0, 2), search(filter -> filter.setLastName("Silva")));
+        assertEquals(List.of(0), search(filter -> {
+            filter.setLastName("Silva");
+            filter.setState("SP");
+        }));
+        assertEquals(List.of(1), search(filter -> filter.setEmail("anabela@bookbrew.com")));
+        assertEquals(List.of(3), search(filter -> filter.setCpf("00000000103")));
+        assertEquals(List.of(0, 3), search(filter -> filter.setCity("Sao Paulo")));
+        assertEquals(List.of(2), search(filter -> filter.setZipCode("20040-002")));
+        assertEquals(List.of(), search(filter -> filter.setName("An%")));
+    }
+
+    @Test
+    void everyFilterIsAnsweredByAnIndex() {
+        Map<String, Consumer<CustomerSearchFilterDTO>> filters = Map.of(
+                "IDX_USER_SNAPSHOTS_NAME", filter -> filter.setName("Ana"),
+                "IDX_USER_SNAPSHOTS_LAST_NAME", filter -> filter.setLastName("Silva"),
+                "IDX_USER_SNAPSHOTS_EMAIL", filter -> filter.setEmail("ana@bookbrew.com"),
+                "IDX_USER_SNAPSHOTS_CPF", filter -> filter.setCpf("00000000100"),
+                "IDX_ADDRESSES_CITY", filter -> filter.setCity("Sao Paulo"),
+                "IDX_ADDRESSES_STATE", filter -> filter.setState("SP"),
+                "IDX_ADDRESSES_ZIP_CODE", filter -> filter.setZipCode("01001-000"));
+
+        filters.forEach((index, filter) -> {
+            search(filter);
+            // parameters are the filter value and the row limit
+            String plan = jdbcTemplate.queryForObject("explain " + LastStatement.sql, String.class, "x", 10)
+                    .toUpperCase();
+            assertTrue(plan.contains(index), index + " not used by:\n" + plan);
+            assertFalse(plan.contains("TABLESCAN"), "Table scan in:\n" + plan);
+        });
+    }
+
+    @Test
+    void combinedFiltersUseTheIndexOfEveryFilter() {
+        Map<List<String>, Consumer<CustomerSearchFilterDTO>> combinations = Map.of(
+                List.of("IDX_USER_SNAPSHOTS_NAME", "IDX_ADDRESSES_CITY"), filter -> {
+                    filter.setName("Ana");
+                    filter.setCity("Sao Paulo");
+                },
+                List.of("IDX_USER_SNAPSHOTS_LAST_NAME", "IDX_ADDRESSES_STATE", "IDX_ADDRESSES_ZIP_CODE"), filter -> {
+                    filter.setLastName("Silva");
+                    filter.setState("SP");
+                    filter.setZipCode("01001-000");
+                },
+                List.of("IDX_USER_SNAPSHOTS_EMAIL", "IDX_USER_SNAPSHOTS_CPF"), filter -> {
+                    filter.setEmail("ana@bookbrew.com");
+                    filter.setCpf("00000000100");
+                });
+
+        combinations.forEach((indexes, filter) -> {
+            search(filter);
+            // one parameter per filter value, then the row limit
+            List<Object> parameters = new ArrayList<>(Collections.nCopies(indexes.size(), "x"));
+            parameters.add(10);
+            String plan = jdbcTemplate.queryForObject("explain " + LastStatement.sql, String.class,
+                    parameters.toArray()).toUpperCase();
+            for (String index : indexes) {
+                assertTrue(plan.contains(index), index + " not used by:\n" + plan);
+            }
+            assertFalse(plan.contains("TABLESCAN"), "Table scan in:\n" + plan);
+        });
+    }
+
+    private List<Integer> search(Consumer<CustomerSearchFilterDTO> configure) {
+        CustomerSearchFilterDTO filter = new CustomerSearchFilterDTO();
+        configure.accept(filter);
+        Specification<Customer> spec = CustomerSpecifications.matching(filter);
+        List<Customer> found = customerRepository.findBy(spec, query -> query.sortBy(Sort.by("id")).limit(10).all());
+        return found.stream().map(customer -> customers.indexOf(customers.stream()
+                .filter(c -> c.getId().equals(customer.getId())).findFirst().orElseThrow())).toList();
+    }
+
+    private Address address(String city, String state, String zipCode) {
+        Address address = new Address();
+        address.setZipCode(zipCode);
+        address.setStreet("Rua A");
+        address.setNumber("100");
+        address.setComplement("Apto 1");
+        address.setNeighborhood("Centro");
+        address.setType("HOME");
+        address.setCity(city);
+        address.setState(state);
+        address.setCountry("Brazil");
+        return address;
+    }
+
+    // keeps the SQL of the last statement so its plan can be checked
+    public static class LastStatement implements StatementInspector {
+
+        static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.bookbrew.customer.service.repository;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bookbrew.customer.service.model.Customer;
+
+@DataJpaTest
+@Import(IdSequenceInitializer.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdSequenceInitializerTests {
+
+    private static final long LEGACY_ID = 5000;
+
+    @Autowired
+    private IdSequenceInitializer idSequenceInitializer;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteCustomers() {
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void sequenceIsMovedPastIdsWrittenByIdentityColumns() {
+        // a row left by the IDENTITY era, far ahead of the fresh sequence
+        jdbcTemplate.update("insert into customers (id, user_id, birth_date, version) values (?, 1, '1990-01-01', 0)",
+                LEGACY_ID);
+
+        idSequenceInitializer.align("customers_seq", "customers");
+        long next = jdbcTemplate.queryForObject("select next value for customers_seq", Long.class);
+        assertTrue(next > LEGACY_ID + IdSequenceInitializer.ALLOCATION_SIZE, () -> "next value " + next);
+
+        // aligning again never moves it back
+        idSequenceInitializer.align("customers_seq", "customers");
+        assertTrue(jdbcTemplate.queryForObject("select next value for customers_seq", Long.class) > next);
+
+        Customer customer = new Customer();
+        customer.setUserId(2L);
+        customer.setBirthDate("1990-01-01");
+        assertNotEquals(LEGACY_ID, customerRepository.save(customer).getId());
+    }
+
+}
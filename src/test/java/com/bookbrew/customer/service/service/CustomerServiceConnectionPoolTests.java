@@ -0,0 +1,95 @@
+package com.bookbrew.customer.service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.bookbrew.customer.service.dto.CustomerDTO;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.support.StubAuthService;
+import com.zaxxer.hikari.HikariDataSource;
+
+@SpringBootTest(properties = "spring.datasource.hikari.maximum-pool-size=2")
+class CustomerServiceConnectionPoolTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    private static final Duration AUTH_SERVICE_DELAY = Duration.ofSeconds(1);
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @Test
+    void slowAuthServiceDoesNotHoldPooledConnections() throws Exception {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Customer customer = new Customer();
+            customer.setUserId(System.nanoTime());
+            customer.setBirthDate("1990-01-01");
+            customer.setAddresses(new ArrayList<>());
+            customers.add(customerRepository.save(customer));
+            authService.addUser(customer.getUserId());
+        }
+        authService.setResponseDelay(AUTH_SERVICE_DELAY);
+
+        // platform threads, like the servlet container's request threads
+        try (ExecutorService executor = Executors.newFixedThreadPool(customers.size())) {
+            List<Future<?>> updates = new ArrayList<>();
+            for (Customer customer : customers) {
+                CustomerDTO update = new CustomerDTO();
+                update.setName("Renamed");
+                update.setBirthDate("1991-01-01");
+                updates.add(executor.submit(() -> customerService.update(customer.getId(), update, null)));
+            }
+
+            Thread.sleep(AUTH_SERVICE_DELAY.toMillis() / 2);
+            int activeConnections = dataSource.getHikariPoolMXBean().getActiveConnections();
+
+            long start = System.nanoTime();
+            assertEquals(customers.size(), customerRepository.findAllById(
+                    customers.stream().map(Customer::getId).toList()).size());
+            Duration readLatency = Duration.ofNanos(System.nanoTime() - start);
+
+            for (Future<?> update : updates) {
+                update.get();
+            }
+
+            assertEquals(0, activeConnections);
+            assertTrue(readLatency.compareTo(AUTH_SERVICE_DELAY.dividedBy(2)) < 0,
+                    "read waited " + readLatency + " for a pooled connection");
+        } finally {
+            authService.setResponseDelay(Duration.ZERO);
+        }
+    }
+
+}
@@ -0,0 +1,238 @@
+package com.bookbrew.customer.service.service;
+
+import static com.bookbrew.customer.service.support.TestAddresses.address;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.bookbrew.customer.service.model.Address;
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.repository.UserOutboxRepository;
+import com.bookbrew.customer.service.support.QueuedUpdates;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "customer.outbox.initial-backoff=PT1M" })
+@AutoConfigureMockMvc
+class CustomerServiceTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserLookupService userLookupService;
+
+    @Autowired
+    private UserOutboxService userOutboxService;
+
+    @Autowired
+    private UserSnapshotService userSnapshotService;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Customer customer;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void createCustomer() {
+        userOutboxRepository.deleteAll();
+        customer = new Customer();
+        customer.setUserId(System.nanoTime());
+        customer.setBirthDate("1990-01-01");
+        List<Address> addresses = new ArrayList<>();
+        addresses.add(address("Rua A"));
+        customer.setAddresses(addresses);
+        customer = customerRepository.save(customer);
+
+        authService.reset();
+        authService.addUser(customer.getUserId());
+        userLookupService.evict(customer.getUserId());
+    }
+
+    @Test
+    void updateWithoutUserChangesSkipsAuthServiceUpdate() throws Exception {
+        mockMvc.perform(put("/api/customers/" + customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"birthDate\":\"1991-02-03\",\"name\":\"Name " + customer.getUserId() + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.birthDate").value("1991-02-03"))
+                .andExpect(jsonPath("$.name").value("Name " + customer.getUserId()));
+
+        assertEquals(List.of("GET /api/users/" + customer.getUserId()), authService.requests());
+    }
+
+    @Test
+    void updateBuildsResponseFromMergedUser() throws Exception {
+        mockMvc.perform(put("/api/customers/" + customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Maria\",\"addresses\":[{\"zipCode\":\"20040-002\",\"street\":\"Rua B\","
+                        + "\"number\":\"1\",\"complement\":\"Casa\",\"neighborhood\":\"Centro\",\"type\":\"WORK\","
+                        + "\"city\":\"Rio de Janeiro\",\"state\":\"RJ\",\"country\":\"Brazil\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Maria"))
+                .andExpect(jsonPath("$.lastName").value("Last " + customer.getUserId()))
+                .andExpect(jsonPath("$.addressesId.length()").value(2))
+                .andExpect(jsonPath("$.addressesId[1]").isNumber());
+
+        assertEquals(List.of("GET /api/users/" + customer.getUserId(), "PUT /api/users/" + customer.getUserId()),
+                authService.requests());
+    }
+
+    @Test
+    void userChangeRejectedByAuthServiceFailsTheUpdateAndWritesNothing() throws Exception {
+        authService.setWriteFailureStatus(400);
+
+        mockMvc.perform(put("/api/customers/" + customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"birthDate\":\"1991-02-03\",\"email\":\"not-an-email\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details").value("Invalid user data"));
+
+        authService.setWriteFailureStatus(0);
+        mockMvc.perform(get("/api/customers/" + customer.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("user" + customer.getUserId() + "@bookbrew.com"))
+                .andExpect(jsonPath("$.birthDate").value("1990-01-01"));
+        assertEquals(0, userOutboxRepository.count());
+    }
+
+    @Test
+    void userChangeWaitsBehindQueuedCommands() throws Exception {
+        userOutboxRepository.save(QueuedUpdates.of(customer.getUserId(), "{\"name\":\"Queued\"}"));
+
+        mockMvc.perform(put("/api/customers/" + customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Direct\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Direct"));
+
+        assertEquals(2, authService.countRequests("PUT /api/users/" + customer.getUserId()));
+        assertEquals(0, userOutboxRepository.count());
+        userLookupService.evict(customer.getUserId());
+        assertEquals("Direct", userLookupService.getUser(customer.getUserId()).getName());
+    }
+
+    @Test
+    void userChangeIsRefusedWhileAQueuedCommandIsBackingOff() throws Exception {
+        authService.setWriteFailureStatus(503);
+        userOutboxService.enqueueDelete(customer.getUserId());
+        userOutboxService.dispatchPending();
+        authService.setWriteFailureStatus(0);
+        long deletes = authService.countRequests("DELETE");
+
+        mockMvc.perform(put("/api/customers/" + customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"password\":\"Secret@456\"}"))
+                .andExpect(status().isServiceUnavailable());
+
+        // the delete is not sent early and the password change not at all
+        assertEquals(deletes, authService.countRequests("DELETE"));
+        assertEquals(0, authService.countRequests("PUT"));
+    }
+
+    @Test
+    void updateOnlyDirtiesChangedAddresses() throws Exception {
+        Long addressId = customer.getAddresses().get(0).getId();
+        // with a fresh snapshot the update records none, so only address writes are counted
+        userSnapshotService.record(authService.addUser(customer.getUserId()));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(put("/api/customers/" + customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"addresses\":[" + addressJson(addressId, "Rua A") + "]}"))
+                .andExpect(status().isOk());
+
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+
+        mockMvc.perform(put("/api/customers/" + customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"addresses\":[" + addressJson(addressId, "Rua Nova") + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.addressesId.length()").value(1));
+
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void addingTheSameAddressTwiceIsRejected() throws Exception {
+        mockMvc.perform(post("/api/customers/" + customer.getId() + "/addresses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(addressJson(null, "rua   a")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details").value("Duplicate addresses are not allowed"));
+
+        mockMvc.perform(put("/api/customers/" + customer.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"addresses\":[" + addressJson(null, "Rua B") + "," + addressJson(null, "RUA B") + "]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void addingANewAddressIsCheckedAgainstTheStoredFingerprints() throws Exception {
+        mockMvc.perform(post("/api/customers/" + customer.getId() + "/addresses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(addressJson(null, "Rua B")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.street").value("Rua B"));
+
+        assertEquals(2, customerRepository.findWithAddressesById(customer.getId()).orElseThrow()
+                .getAddresses().size());
+        mockMvc.perform(post("/api/customers/" + customer.getId() + "/addresses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(addressJson(null, "RUA B")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String addressJson(Long id, String street) {
+        return "{\"id\":" + id + ",\"zipCode\":\"01001-000\",\"street\":\"" + street + "\","
+                + "\"number\":\"100\",\"complement\":\"Apt 1\",\"neighborhood\":\"Centro\",\"type\":\"HOME\","
+                + "\"city\":\"Sao Paulo\",\"state\":\"SP\",\"country\":\"Brazil\"}";
+    }
+
+}
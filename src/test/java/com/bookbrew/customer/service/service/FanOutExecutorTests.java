@@ -0,0 +1,73 @@
+package com.bookbrew.customer.service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class FanOutExecutorTests {
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private FanOutExecutor fanOutExecutor;
+
+    @AfterEach
+    void shutdown() {
+        fanOutExecutor.shutdown();
+    }
+
+    @Test
+    void nestedFanOutRunsInParallelWithinTheConcurrencyLimit() {
+        fanOutExecutor = fanOutExecutor(4);
+
+        long start = System.nanoTime();
+        List<List<Integer>> results = fanOutExecutor.map(List.of(0, 1),
+                outer -> fanOutExecutor.map(List.of(1, 2, 3, 4), inner -> sleep(outer * 10 + inner)));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertEquals(List.of(List.of(1, 2, 3, 4), List.of(11, 12, 13, 14)), results);
+        // eight 100ms calls on four permits take two rounds; run inline they would take four
+        assertTrue(elapsed.compareTo(Duration.ofMillis(350)) < 0, elapsed::toString);
+        assertTrue(maxRunning.get() <= 4, () -> "max running " + maxRunning.get());
+    }
+
+    @Test
+    void nestedFanOutDoesNotDeadlockOnASinglePermit() {
+        fanOutExecutor = fanOutExecutor(1);
+
+        List<List<Integer>> results = fanOutExecutor.map(List.of(0, 1),
+                outer -> fanOutExecutor.map(List.of(1, 2), inner -> sleep(outer * 10 + inner)));
+
+        assertEquals(List.of(List.of(1, 2), List.of(11, 12)), results);
+        assertEquals(1, maxRunning.get());
+    }
+
+    private FanOutExecutor fanOutExecutor(int maxConcurrency) {
+        FanOutExecutor executor = new FanOutExecutor();
+        ReflectionTestUtils.setField(executor, "maxConcurrency", maxConcurrency);
+        ReflectionTestUtils.setField(executor, "callTimeout", Duration.ofSeconds(5));
+        executor.init();
+        return executor;
+    }
+
+    private int sleep(int value) {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.decrementAndGet();
+        }
+        return value;
+    }
+
+}
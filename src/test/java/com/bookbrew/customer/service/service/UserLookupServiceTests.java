@@ -0,0 +1,112 @@
+package com.bookbrew.customer.service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+@SpringBootTest(properties = "auth.service.batch-size=2")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class UserLookupServiceTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private UserLookupService userLookupService;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void resetAuthService() {
+        authService.reset();
+        LongStream.rangeClosed(1, 5).forEach(authService::addUser);
+        // the test framework binds a mock request; start outside of one so only the shared cache is involved
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void findUsersByIdsFetchesInChunks() {
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L, 5L, 99L);
+
+        Map<Long, UserResponseDTO> users = userLookupService.findUsersByIds(ids);
+
+        assertEquals(5, users.size());
+        assertEquals("Name 3", users.get(3L).getName());
+        assertEquals(3, authService.countRequests("GET /api/users/batch"));
+        assertEquals(0, singleLookups());
+    }
+
+    @Test
+    void findUsersByIdsFallsBackToSingleLookupsWithoutBulkEndpoint() {
+        authService.setBulkEndpointEnabled(false);
+        List<Long> ids = LongStream.rangeClosed(1, 6).boxed().collect(Collectors.toList());
+
+        Map<Long, UserResponseDTO> users = userLookupService.findUsersByIds(ids);
+
+        assertEquals(5, users.size());
+        assertEquals(1, authService.countRequests("GET /api/users/batch"));
+        assertEquals(6, singleLookups());
+    }
+
+    @Test
+    void cachedUsersAreNotFetchedAgain() {
+        userLookupService.findUsersByIds(List.of(1L, 2L, 3L));
+        userLookupService.getUser(2L);
+        userLookupService.evict(3L);
+
+        Map<Long, UserResponseDTO> users = userLookupService.findUsersByIds(List.of(1L, 2L, 3L, 4L));
+
+        assertEquals(4, users.size());
+        assertEquals(1, authService.countRequests("GET /api/users/batch?ids=3&ids=4"));
+        assertEquals(0, singleLookups());
+        assertEquals(3, userLookupService.getCacheStats().getHits());
+    }
+
+    @Test
+    void usersAreMemoizedForTheCurrentRequest() {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            userLookupService.findUsersByIds(List.of(1L, 2L));
+            userLookupService.evict(1L);
+            userLookupService.getUser(2L);
+            userLookupService.findUsersByIds(List.of(1L, 2L));
+
+            assertEquals(List.of("GET /api/users/batch?ids=1&ids=2", "GET /api/users/batch?ids=1"),
+                    authService.requests());
+            assertEquals(0, userLookupService.getCacheStats().getHits());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private long singleLookups() {
+        return authService.countRequests("GET /api/users/") - authService.countRequests("GET /api/users/batch");
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.bookbrew.customer.service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.model.UserOutboxEvent;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.repository.UserOutboxRepository;
+import com.bookbrew.customer.service.support.QueuedUpdates;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+@SpringBootTest(properties = "customer.outbox.initial-backoff=PT0S")
+class UserOutboxServiceTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private UserOutboxService userOutboxService;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        userOutboxRepository.deleteAll();
+        authService.reset();
+    }
+
+    @Test
+    void deleteIsRetriedUntilAuthServiceAcceptsIt() {
+        Customer customer = new Customer();
+        customer.setUserId(System.nanoTime());
+        customer.setBirthDate("1990-01-01");
+        customer.setAddresses(new ArrayList<>());
+        customer = customerRepository.save(customer);
+        authService.addUser(customer.getUserId());
+        authService.setWriteFailureStatus(503);
+
+        customerService.deleteCustomer(customer.getId());
+        assertFalse(customerRepository.existsById(customer.getId()));
+
+        userOutboxService.dispatchPending();
+
+        UserOutboxEvent event = userOutboxRepository.findAll().get(0);
+        assertEquals(UserOutboxEvent.Status.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertTrue(authService.hasUser(customer.getUserId()));
+
+        authService.setWriteFailureStatus(0);
+        userOutboxService.dispatchPending();
+
+        assertEquals(0, userOutboxRepository.count());
+        assertFalse(authService.hasUser(customer.getUserId()));
+    }
+
+    @Test
+    void commandsForOneUserAreSentInOrder() {
+        authService.addUser(7L);
+        userOutboxRepository.save(QueuedUpdates.of(7L, "{\"name\":\"Renamed\"}"));
+        userOutboxService.enqueueDelete(7L);
+        userOutboxService.enqueueDelete(8L);
+
+        userOutboxService.dispatchPending();
+
+        assertEquals(1, userOutboxRepository.count());
+        assertEquals(2, authService.requests().size());
+        assertTrue(authService.requests().containsAll(List.of("PUT /api/users/7", "DELETE /api/users/8")));
+
+        userOutboxService.dispatchPending();
+
+        assertEquals(0, userOutboxRepository.count());
+        assertEquals("DELETE /api/users/7", authService.requests().get(2));
+    }
+
+    @Test
+    void rejectedCommandsAreNotRetried() {
+        authService.setWriteFailureStatus(400);
+        userOutboxRepository.save(QueuedUpdates.of(9L, "{}"));
+
+        userOutboxService.dispatchPending();
+        userOutboxService.dispatchPending();
+
+        UserOutboxEvent event = userOutboxRepository.findAll().get(0);
+        assertEquals(UserOutboxEvent.Status.FAILED, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertEquals(1, authService.requests().size());
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.bookbrew.customer.service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.bookbrew.customer.service.model.Customer;
+import com.bookbrew.customer.service.model.UserOutboxEvent;
+import com.bookbrew.customer.service.model.UserSnapshot;
+import com.bookbrew.customer.service.repository.CustomerRepository;
+import com.bookbrew.customer.service.repository.UserOutboxRepository;
+import com.bookbrew.customer.service.repository.UserSnapshotRepository;
+import com.bookbrew.customer.service.support.StubAuthService;
+
+@SpringBootTest(properties = { "customer.user-projection.batch-size=2",
+        "customer.user-projection.max-batches-per-run=2" })
+class UserSnapshotServiceTests {
+
+    private static final StubAuthService authService = new StubAuthService();
+
+    @Autowired
+    private UserSnapshotService userSnapshotService;
+
+    @Autowired
+    private UserSnapshotRepository userSnapshotRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @DynamicPropertySource
+    static void authServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("auth.service.url", authService::url);
+    }
+
+    @AfterAll
+    static void stopAuthService() {
+        authService.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        customerRepository.deleteAll();
+        userSnapshotRepository.deleteAll();
+        userOutboxRepository.deleteAll();
+        authService.reset();
+    }
+
+    @Test
+    void refreshBackfillsMissingSnapshotsAndDropsDeletedUsers() {
+        Customer imported = createCustomer();
+        authService.addUser(imported.getUserId());
+        Customer orphaned = createCustomer();
+        userSnapshotService.record(authService.addUser(orphaned.getUserId()));
+        age(orphaned.getUserId(), Duration.ofHours(1));
+        authService.reset();
+        authService.addUser(imported.getUserId());
+
+        userSnapshotService.refreshStale();
+
+        UserSnapshot snapshot = userSnapshotRepository.findById(imported.getUserId()).orElseThrow();
+        assertEquals("Name " + imported.getUserId(), snapshot.getName());
+        assertFalse(userSnapshotRepository.existsById(orphaned.getUserId()));
+        assertEquals(1, authService.countRequests("GET /api/users/batch"));
+    }
+
+    @Test
+    void customersThatCannotBeRecordedDoNotHoldBackTheStaleSnapshots() {
+        // a full batch at the head of the backfill whose users are gone from auth-service, then one with a queued
+        // command
+        Customer deleted = createCustomer();
+        Customer alsoDeleted = createCustomer();
+        Customer queued = createCustomer();
+        authService.addUser(queued.getUserId());
+        queue(queued.getUserId(), UserOutboxEvent.Status.PENDING);
+        Customer stale = createCustomer();
+        userSnapshotService.record(authService.addUser(stale.getUserId()));
+        age(stale.getUserId(), Duration.ofHours(1));
+
+        for (int run = 0; run < 2; run++) {
+            userSnapshotService.refreshStale();
+
+            assertFalse(userSnapshotRepository.existsById(deleted.getUserId()));
+            assertFalse(userSnapshotRepository.existsById(alsoDeleted.getUserId()));
+            assertFalse(userSnapshotRepository.existsById(queued.getUserId()));
+            Instant refreshedAt = userSnapshotRepository.findById(stale.getUserId()).orElseThrow().getRefreshedAt();
+            assertTrue(refreshedAt.isAfter(Instant.now().minus(Duration.ofMinutes(1))));
+            age(stale.getUserId(), Duration.ofHours(1));
+        }
+    }
+
+    @Test
+    void aRunHandlesAtMostMaxBatchesAndTheNextOneContinues() {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Customer customer = createCustomer();
+            authService.addUser(customer.getUserId());
+            customers.add(customer);
+        }
+
+        userSnapshotService.refreshStale();
+        assertEquals(4, userSnapshotRepository.count());
+        assertFalse(userSnapshotRepository.existsById(customers.get(4).getUserId()));
+
+        userSnapshotService.refreshStale();
+        assertTrue(userSnapshotRepository.existsById(customers.get(4).getUserId()));
+    }
+
+    @Test
+    void onlyPendingOutboxCommandsHoldBackARefresh() {
+        Customer failed = createCustomer();
+        authService.addUser(failed.getUserId());
+        queue(failed.getUserId(), UserOutboxEvent.Status.FAILED);
+        Customer pending = createCustomer();
+        authService.addUser(pending.getUserId());
+        queue(pending.getUserId(), UserOutboxEvent.Status.PENDING);
+
+        userSnapshotService.refreshStale();
+
+        assertTrue(userSnapshotRepository.existsById(failed.getUserId()));
+        assertFalse(userSnapshotRepository.existsById(pending.getUserId()));
+    }
+
+    @Test
+    void staleSnapshotIsReplacedByALiveLookup() {
+        Customer customer = createCustomer();
+        userSnapshotService.record(authService.addUser(customer.getUserId()));
+
+        customerService.findById(customer.getId());
+        assertTrue(authService.requests().isEmpty());
+
+        age(customer.getUserId(), Duration.ofHours(1));
+        customerService.findCustomerByUserId(customer.getUserId());
+
+        assertEquals(1, authService.countRequests("GET /api/users/" + customer.getUserId()));
+        Instant refreshedAt = userSnapshotRepository.findById(customer.getUserId()).orElseThrow().getRefreshedAt();
+        assertTrue(refreshedAt.isAfter(Instant.now().minus(Duration.ofMinutes(1))));
+    }
+
+    private Customer createCustomer() {
+        Customer customer = new Customer();
+        customer.setUserId(System.nanoTime());
+        customer.setBirthDate("1990-01-01");
+        customer.setAddresses(new ArrayList<>());
+        return customerRepository.save(customer);
+    }
+
+    private void queue(Long userId, UserOutboxEvent.Status status) {
+        UserOutboxEvent event = new UserOutboxEvent();
+        event.setType(UserOutboxEvent.Type.UPDATE_USER);
+        event.setUserId(userId);
+        event.setPayload("{}");
+        event.setStatus(status);
+        event.setNextAttemptAt(Instant.now());
+        event.setCreatedAt(Instant.now());
+        userOutboxRepository.save(event);
+    }
+
+    private void age(Long userId, Duration age) {
+        UserSnapshot snapshot = userSnapshotRepository.findById(userId).orElseThrow();
+        snapshot.setRefreshedAt(Instant.now().minus(age));
+        userSnapshotRepository.save(snapshot);
+    }
+
+}
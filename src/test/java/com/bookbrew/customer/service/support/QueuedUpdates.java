@@ -0,0 +1,25 @@
+package com.bookbrew.customer.service.support;
+
+import java.time.Instant;
+
+import com.bookbrew.customer.service.model.UserOutboxEvent;
+
+// UPDATE_USER rows as the outbox kept them before user changes were sent synchronously
+public final class QueuedUpdates {
+
+    private QueuedUpdates() {
+    }
+
+    public static UserOutboxEvent of(Long userId, String payload) {
+        Instant now = Instant.now();
+
+        UserOutboxEvent event = new UserOutboxEvent();
+        event.setType(UserOutboxEvent.Type.UPDATE_USER);
+        event.setUserId(userId);
+        event.setPayload(payload);
+        event.setCreatedAt(now);
+        event.setNextAttemptAt(now);
+        return event;
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.bookbrew.customer.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.bookbrew.customer.service.monitoring.RequestStatisticsFilter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// MockMvc matchers on the per-request counters, e.g. andExpectAll(RequestBudget.within(2, 1))
+public final class RequestBudget {
+
+    private RequestBudget() {
+    }
+
+    public static ResultMatcher maxQueries(int max) {
+        return atMost(RequestStatisticsFilter.QUERY_COUNT_HEADER, "SQL statements", max);
+    }
+
+    public static ResultMatcher maxRemoteCalls(int max) {
+        return atMost(RequestStatisticsFilter.REMOTE_CALL_COUNT_HEADER, "auth-service calls", max);
+    }
+
+    public static ResultMatcher[] within(int maxQueries, int maxRemoteCalls) {
+        return new ResultMatcher[] { maxQueries(maxQueries), maxRemoteCalls(maxRemoteCalls) };
+    }
+
+    // async requests open their body before the work runs, so their headers miss it; the summaries the filter
+    // records on completion are compared before and after one such request instead
+    public static Recorded recorded(MeterRegistry registry, String method, String uri) {
+        return new Recorded(registry, method, uri);
+    }
+
+    private static ResultMatcher atMost(String header, String what, int max) {
+        return result -> {
+            String value = result.getResponse().getHeader(header);
+            assertNotNull(value, header + " header is missing");
+            int actual = Integer.parseInt(value);
+            assertTrue(actual <= max, result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                    + " made " + actual + " " + what + ", budget is " + max);
+        };
+    }
+
+    public static final class Recorded {
+
+        private final MeterRegistry registry;
+
+        private final String method;
+
+        private final String uri;
+
+        private final long count;
+
+        private final double queries;
+
+        private final double remoteCalls;
+
+        private Recorded(MeterRegistry registry, String method, String uri) {
+            this.registry = registry;
+            this.method = method;
+            this.uri = uri;
+            this.count = summary("http.server.requests.queries").count();
+            this.queries = summary("http.server.requests.queries").totalAmount();
+            this.remoteCalls = summary("http.server.requests.remote.calls").totalAmount();
+        }
+
+        public void assertWithin(int maxQueries, int maxRemoteCalls) {
+            assertEquals(count + 1, summary("http.server.requests.queries").count(),
+                    method + " " + uri + " was not recorded once");
+            long actualQueries = queries();
+            long actualRemoteCalls = (long) (summary("http.server.requests.remote.calls").totalAmount() - remoteCalls);
+            assertTrue(actualQueries <= maxQueries,
+                    method + " " + uri + " made " + actualQueries + " SQL statements, budget is " + maxQueries);
+            assertTrue(actualRemoteCalls <= maxRemoteCalls, method + " " + uri + " made " + actualRemoteCalls
+                    + " auth-service calls, budget is " + maxRemoteCalls);
+        }
+
+        public long queries() {
+            return (long) (summary("http.server.requests.queries").totalAmount() - queries);
+        }
+
+        private DistributionSummary summary(String name) {
+            return DistributionSummary.builder(name)
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(registry);
+        }
+
+    }
+
+}
@@ -0,0 +1,296 @@
+package com.bookbrew.customer.service.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.bookbrew.customer.service.dto.UserDTO;
+import com.bookbrew.customer.service.dto.UserProfileDTO;
+import com.bookbrew.customer.service.dto.UserResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class StubAuthService implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final Map<Long, UserResponseDTO> users = new ConcurrentHashMap<>();
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private final List<String> compressedRequests = new CopyOnWriteArrayList<>();
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final HttpServer server;
+
+    private volatile boolean bulkEndpointEnabled = true;
+
+    private volatile Duration responseDelay = Duration.ZERO;
+
+    private volatile int writeFailureStatus;
+
+    private volatile int readFailureStatus;
+
+    private final AtomicInteger delayedRequests = new AtomicInteger();
+
+    private volatile Duration nextRequestsDelay = Duration.ZERO;
+
+    private volatile boolean gzipResponses;
+
+    public StubAuthService() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        server.createContext("/api/users", this::handleUsers);
+        server.createContext("/api/user-profiles", this::handleProfiles);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public boolean hasUser(Long id) {
+        return users.containsKey(id);
+    }
+
+    public UserResponseDTO addUser(Long id) {
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(id);
+        user.setName("Name " + id);
+        user.setLastName("Last " + id);
+        user.setEmail("user" + id + "@bookbrew.com");
+        user.setCpf(String.format("%011d", id));
+        user.setPhone("5511999999999");
+        user.setStatus(true);
+        user.setIdProfile(4L);
+        users.put(id, user);
+        return user;
+    }
+
+    public void setBulkEndpointEnabled(boolean bulkEndpointEnabled) {
+        this.bulkEndpointEnabled = bulkEndpointEnabled;
+    }
+
+    public void setResponseDelay(Duration responseDelay) {
+        this.responseDelay = responseDelay;
+    }
+
+    public void setWriteFailureStatus(int writeFailureStatus) {
+        this.writeFailureStatus = writeFailureStatus;
+    }
+
+    public void setReadFailureStatus(int readFailureStatus) {
+        this.readFailureStatus = readFailureStatus;
+    }
+
+    // only the next count requests are slowed down, e.g. to make one attempt of a hedged call lag behind
+    public void delayNextRequests(int count, Duration delay) {
+        nextRequestsDelay = delay;
+        delayedRequests.set(count);
+    }
+
+    public void setGzipResponses(boolean gzipResponses) {
+        this.gzipResponses = gzipResponses;
+    }
+
+    // distinct client sockets seen since the last reset
+    public int connectionCount() {
+        return clientPorts.size();
+    }
+
+    public List<String> compressedRequests() {
+        return new ArrayList<>(compressedRequests);
+    }
+
+    public List<String> requests() {
+        return new ArrayList<>(requests);
+    }
+
+    public long countRequests(String prefix) {
+        return requests.stream().filter(request -> request.startsWith(prefix)).count();
+    }
+
+    public void reset() {
+        users.clear();
+        requests.clear();
+        compressedRequests.clear();
+        clientPorts.clear();
+        bulkEndpointEnabled = true;
+        responseDelay = Duration.ZERO;
+        writeFailureStatus = 0;
+        readFailureStatus = 0;
+        gzipResponses = false;
+        delayedRequests.set(0);
+    }
+
+    private void handleUsers(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getRawQuery();
+        requests.add(exchange.getRequestMethod() + " " + path + (query != null ? "?" + query : ""));
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        if (delayedRequests.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            sleep(nextRequestsDelay);
+        }
+
+        if (path.equals("/api/users/batch")) {
+            if (!bulkEndpointEnabled) {
+                // what a Spring auth-service without the endpoint answers: /batch binds to /{userId} and fails
+                respond(exchange, 400, Map.of("message", "Bad Request", "details", "Invalid value for userId"));
+                return;
+            }
+            List<UserResponseDTO> found = new ArrayList<>();
+            for (Long id : idsFrom(query)) {
+                if (users.containsKey(id)) {
+                    found.add(users.get(id));
+                }
+            }
+            respond(exchange, 200, found);
+            return;
+        }
+
+        String method = exchange.getRequestMethod();
+        if (method.equals("POST") && path.equals("/api/users") && writeFailureStatus == 0) {
+            respond(exchange, 201, createUser(objectMapper.readValue(requestBody(exchange), UserDTO.class)));
+            return;
+        }
+        if (!method.equals("GET") && writeFailureStatus != 0) {
+            respond(exchange, writeFailureStatus, writeFailureStatus == 400
+                    ? Map.of("message", "Bad Request", "details", "Invalid user data")
+                    : null);
+            return;
+        }
+        if (method.equals("GET") && readFailureStatus != 0) {
+            respond(exchange, readFailureStatus, null);
+            return;
+        }
+
+        Long id = Long.valueOf(path.substring("/api/users/".length()));
+        UserResponseDTO user = method.equals("DELETE") ? users.remove(id) : users.get(id);
+        if (user != null && method.equals("PUT")) {
+            applyUpdate(user, objectMapper.readValue(requestBody(exchange), UserDTO.class));
+        }
+        respond(exchange, user != null ? 200 : 404, method.equals("DELETE") ? null : user);
+    }
+
+    private InputStream requestBody(HttpExchange exchange) throws IOException {
+        if (!"gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            return exchange.getRequestBody();
+        }
+        compressedRequests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+        return new GZIPInputStream(exchange.getRequestBody());
+    }
+
+    private UserResponseDTO createUser(UserDTO userDTO) {
+        UserResponseDTO user = addUser(System.nanoTime());
+        applyUpdate(user, userDTO);
+        user.setCpf(userDTO.getCpf());
+        return user;
+    }
+
+    private void applyUpdate(UserResponseDTO user, UserDTO update) {
+        if (update.getName() != null)
+            user.setName(update.getName());
+        if (update.getLastName() != null)
+            user.setLastName(update.getLastName());
+        if (update.getEmail() != null)
+            user.setEmail(update.getEmail());
+        if (update.getPhone() != null)
+            user.setPhone(update.getPhone());
+        if (update.getStatus() != null)
+            user.setStatus(update.getStatus());
+    }
+
+    private void handleProfiles(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requests.add(exchange.getRequestMethod() + " " + path);
+
+        UserProfileDTO profile = new UserProfileDTO();
+        profile.setId(Long.valueOf(path.substring("/api/user-profiles/".length())));
+        profile.setName("CUSTOMER");
+        profile.setStatus(true);
+        respond(exchange, 200, profile);
+    }
+
+    private List<Long> idsFrom(String query) {
+        List<Long> ids = new ArrayList<>();
+        if (query == null) {
+            return ids;
+        }
+        for (String param : query.split("&")) {
+            String[] pair = param.split("=", 2);
+            if (pair.length == 2 && pair[0].equals("ids")) {
+                Arrays.stream(URLDecoder.decode(pair[1], StandardCharsets.UTF_8).split(","))
+                        .map(Long::valueOf)
+                        .forEach(ids::add);
+            }
+        }
+        return ids;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        sleep(responseDelay);
+
+        byte[] bytes = body != null ? objectMapper.writeValueAsBytes(body) : new byte[0];
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (gzipResponses && bytes.length > 0 && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            bytes = gzip(bytes);
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    private void sleep(Duration delay) {
+        if (delay.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
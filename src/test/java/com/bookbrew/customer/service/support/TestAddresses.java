@@ -0,0 +1,29 @@
+package com.bookbrew.customer.service.support;
+
+import com.bookbrew.customer.service.model.Address;
+
+// the address the tests and benchmarks build customers with; only the street tells two of them apart
+public final class TestAddresses {
+
+    public static final String ADDRESS = "{\"zipCode\":\"20040-002\",\"street\":\"Rua B\",\"number\":\"1\","
+            + "\"complement\":\"Casa\",\"neighborhood\":\"Centro\",\"type\":\"WORK\",\"city\":\"Rio de Janeiro\","
+            + "\"state\":\"RJ\",\"country\":\"Brazil\"}";
+
+    private TestAddresses() {
+    }
+
+    public static Address address(String street) {
+        Address address = new Address();
+        address.setZipCode("01001-000");
+        address.setStreet(street);
+        address.setNumber("100");
+        address.setComplement("Apt 1");
+        address.setNeighborhood("Centro");
+        address.setType("HOME");
+        address.setCity("Sao Paulo");
+        address.setState("SP");
+        address.setCountry("Brazil");
+        return address;
+    }
+
+}